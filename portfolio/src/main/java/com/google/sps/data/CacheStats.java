@@ -0,0 +1,38 @@
+package com.google.sps.data;
+
+/** Number of hits and misses of a cache since the instance started. */
+public final class CacheStats {
+
+    //hits in this instance's memory
+    private final long localHits;
+    //hits in the store shared by all instances (Memcache or Datastore)
+    private final long sharedHits;
+    private final long misses;
+    private final double hitRate;
+
+    public CacheStats(long localHits, long sharedHits, long misses) {
+        this.localHits = localHits;
+        this.sharedHits = sharedHits;
+        this.misses = misses;
+
+        long lookups = localHits + sharedHits + misses;
+        this.hitRate = lookups == 0 ? 0 : (double) (localHits + sharedHits) / lookups;
+    }
+
+    public long getLocalHits() {
+        return this.localHits;
+    }
+
+    public long getSharedHits() {
+        return this.sharedHits;
+    }
+
+    public long getMisses() {
+        return this.misses;
+    }
+
+    public double getHitRate() {
+        return this.hitRate;
+    }
+
+}
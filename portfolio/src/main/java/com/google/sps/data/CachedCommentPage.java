@@ -0,0 +1,38 @@
+package com.google.sps.data;
+
+import java.io.Serializable;
+import java.lang.String;
+import java.util.ArrayList;
+
+/**
+* The part of a page of comments that is the same for every user, as stored in CommentCache. The comments have isLiked and
+* isAuthor set to false, authorIds holds the userId of the author of the comment at the same index.
+*/
+public final class CachedCommentPage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<Comment> comments;
+    private final ArrayList<String> authorIds;
+    //null if there are no more comments after this page
+    private final String cursor;
+
+    public CachedCommentPage(ArrayList<Comment> comments, ArrayList<String> authorIds, String cursor) {
+        this.comments = comments;
+        this.authorIds = authorIds;
+        this.cursor = cursor;
+    }
+
+    public ArrayList<Comment> getComments() {
+        return this.comments;
+    }
+
+    public ArrayList<String> getAuthorIds() {
+        return this.authorIds;
+    }
+
+    public String getCursor() {
+        return this.cursor;
+    }
+
+}
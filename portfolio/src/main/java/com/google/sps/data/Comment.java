@@ -1,8 +1,11 @@
 package com.google.sps.data;
 
+import java.io.Serializable;
 import java.lang.String;
 
-public final class Comment {
+public final class Comment implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     //Builder class
     public static final class CommentBuilder {
@@ -27,6 +30,19 @@ public final class Comment {
             this.isAuthor = false;
         }
 
+        //copies all fields of comment, used to set the fields that depend on the current user on a cached comment
+        public CommentBuilder(Comment comment) {
+            this.name = comment.name;
+            this.message = comment.message;
+            this.email = comment.email;
+            this.timestamp = comment.timestamp;
+            this.numLikes = comment.numLikes;
+            this.isLiked = comment.isLiked;
+            this.languageCode = comment.languageCode;
+            this.isAuthor = comment.isAuthor;
+            this.id = comment.id;
+        }
+
         public CommentBuilder setName(String name) {
             this.name = name;
             return this;
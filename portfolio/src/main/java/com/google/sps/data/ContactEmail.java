@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.lang.String;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/** A message sent with the contact form. */
+public final class ContactEmail {
+
+    private final String from;
+    private final String name;
+    private final String message;
+
+    public ContactEmail(String from, String name, String message) {
+        this.from = from;
+        this.name = name;
+        this.message = message;
+    }
+
+    public String getFrom() {
+        return this.from;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    public String getSubject() {
+        return "Message from " + name + ": " + from;
+    }
+
+    /**
+    * Gets a hash of the sender, name and message, which is the same for duplicate submissions of the form.
+    * @return String
+    */
+    public String getCoalescingKey() {
+        try {
+            String contents = from + "\n" + name + "\n" + message;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contents.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder();
+            for(byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+
+            return key.toString();
+        } catch (NoSuchAlgorithmException e) {
+            //every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,73 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.data;
+
+/** Counts of contact emails queued and sent by this instance since it started. */
+public final class EmailStats {
+
+    //emails waiting to be sent, including ones waiting to be retried
+    private final long queueDepth;
+    private final long accepted;
+    //submissions dropped because the same email was accepted recently
+    private final long coalesced;
+    //submissions that could not be queued
+    private final long rejected;
+    //emails in digests that were sent
+    private final long sent;
+    //attempts to send a digest that failed
+    private final long failedAttempts;
+    //per attempt to send a digest
+    private final double averageSendMillis;
+
+    public EmailStats(long queueDepth, long accepted, long coalesced, long rejected, long sent, long failedAttempts, double averageSendMillis) {
+        this.queueDepth = queueDepth;
+        this.accepted = accepted;
+        this.coalesced = coalesced;
+        this.rejected = rejected;
+        this.sent = sent;
+        this.failedAttempts = failedAttempts;
+        this.averageSendMillis = averageSendMillis;
+    }
+
+    public long getQueueDepth() {
+        return this.queueDepth;
+    }
+
+    public long getAccepted() {
+        return this.accepted;
+    }
+
+    public long getCoalesced() {
+        return this.coalesced;
+    }
+
+    public long getRejected() {
+        return this.rejected;
+    }
+
+    public long getSent() {
+        return this.sent;
+    }
+
+    public long getFailedAttempts() {
+        return this.failedAttempts;
+    }
+
+    public double getAverageSendMillis() {
+        return this.averageSendMillis;
+    }
+
+}
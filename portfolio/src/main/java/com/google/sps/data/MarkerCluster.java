@@ -0,0 +1,50 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+/** Represents a group of markers that are close together on a zoomed out map, placed at their average position. */
+public class MarkerCluster {
+
+  private double latSum;
+  private double lngSum;
+  private long count;
+
+  public MarkerCluster() {}
+
+  /** Creates a cluster of count markers whose average position is lat, lng. */
+  public MarkerCluster(double lat, double lng, long count) {
+    this.latSum = lat * count;
+    this.lngSum = lng * count;
+    this.count = count;
+  }
+
+  public void add(double lat, double lng) {
+    this.latSum += lat;
+    this.lngSum += lng;
+    this.count++;
+  }
+
+  public double getLat() {
+    return this.latSum / this.count;
+  }
+
+  public double getLng() {
+    return this.lngSum / this.count;
+  }
+
+  public long getCount() {
+    return this.count;
+  }
+}
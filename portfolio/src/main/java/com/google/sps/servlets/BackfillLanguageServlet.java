@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.CommentTranslate;
+import com.google.sps.utilities.GoogleTranslate;
+import com.google.sps.utilities.FakeTranslate;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import com.google.appengine.api.users.UserService;  
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.datastore.Transaction;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+
+/**
+* Servlet that stores the detected language on Comment entities written before languageCode was saved with each comment.
+* Each request handles one batch of comments and returns the cursor for the next batch, or "done" when all comments have
+* been handled. Only admins can run it.
+*/
+@WebServlet("/backfill-language")
+public class BackfillLanguageServlet extends HttpServlet {
+
+    private final int BATCH_SIZE = 100;
+    private static CommentTranslate translator;
+
+    public void init() {
+        //change this to GoogleTranslate when deploying
+        translator = new FakeTranslate();
+    }
+
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UserService userService = UserServiceFactory.getUserService();
+
+        if (!userService.isUserLoggedIn() || !userService.isUserAdmin()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        FetchOptions fetchOptions = FetchOptions.Builder.withLimit(BATCH_SIZE);
+        String cursor = request.getParameter("cursor");
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+        QueryResultList<Entity> batch;
+        try {
+            if(cursor != null) {
+                fetchOptions.startCursor(Cursor.fromWebSafeString(cursor));
+            }
+            //Datastore only checks that the cursor is valid when the query runs
+            batch = datastore.prepare(new Query("Comment")).asQueryResultList(fetchOptions);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+            return;
+        }
+
+        //Datastore can't query for entities missing a property, so check each comment in the batch
+        ArrayList<Key> updatedComments = new ArrayList<Key>();
+        ArrayList<String> messages = new ArrayList<String>();
+        for(Entity entity : batch) {
+            String message = (String) entity.getProperty("message");
+
+            if(entity.getProperty("languageCode") != null || message == null) {
+                continue;
+            }
+
+            updatedComments.add(entity.getKey());
+            messages.add(message);
+        }
+
+        if(!updatedComments.isEmpty()) {
+            //detect the languages of the whole batch with one request
+            List<String> languageCodes = translator.detectLanguages(messages);
+
+            boolean updated = false;
+            for(int i = 0; i < updatedComments.size(); i++) {
+                updated |= setLanguageCode(datastore, updatedComments.get(i), languageCodes.get(i));
+            }
+
+            if(updated) {
+                CommentCache.getInstance().invalidate();
+            }
+        }
+
+        response.setContentType("text/html");
+        response.getWriter().println(batch.size() < BATCH_SIZE ? "done" : batch.getCursor().toWebSafeString());
+    }
+
+    /**
+    * Sets languageCode on the comment in a transaction that reads the comment again, so changes made to it since the batch
+    * was read (like a new numLikes) are kept.
+    * @return boolean, true if the comment was updated
+    */
+    private boolean setLanguageCode(DatastoreService datastore, Key key, String languageCode) {
+        Transaction txn = datastore.beginTransaction();
+
+        try {
+            Entity comment;
+            try {
+                comment = datastore.get(txn, key);
+            } catch (EntityNotFoundException e) {
+                //the comment was deleted after the batch was read
+                return false;
+            }
+
+            if(comment.getProperty("languageCode") != null) {
+                return false;
+            }
+
+            comment.setProperty("languageCode", languageCode);
+            datastore.put(txn, comment);
+            txn.commit();
+            return true;
+
+        } catch (ConcurrentModificationException e) {
+            //the comment is updated the next time the backfill runs
+            System.out.println("Could not set language of comment: " + e.getMessage());
+            return false;
+        } finally {
+            if (txn.isActive()) {
+                txn.rollback();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.ShardedLikeCounter;
+import java.io.IOException;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Set;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import com.google.appengine.api.users.UserService;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+
+/**
+* Servlet that moves Like entities written before the like counter was sharded, which are keyed by user, to the keys from
+* ShardedLikeCounter.createLikeKey and adds them to the comment's counter. Each request handles one batch of likes and returns
+* the cursor for the next batch, or "done" when all likes have been handled. Only admins can run it.
+*/
+@WebServlet("/backfill-likes")
+public class BackfillLikesServlet extends HttpServlet {
+
+    private final int BATCH_SIZE = 100;
+
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UserService userService = UserServiceFactory.getUserService();
+
+        if (!userService.isUserLoggedIn() || !userService.isUserAdmin()) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        FetchOptions fetchOptions = FetchOptions.Builder.withLimit(BATCH_SIZE);
+        String cursor = request.getParameter("cursor");
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+        QueryResultList<Entity> batch;
+        try {
+            if(cursor != null) {
+                fetchOptions.startCursor(Cursor.fromWebSafeString(cursor));
+            }
+            //Datastore only checks that the cursor is valid when the query runs
+            batch = datastore.prepare(new Query("Like")).asQueryResultList(fetchOptions);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+            return;
+        }
+
+        Set<Long> countedCommentIds = new HashSet<Long>();
+        for(Entity like : batch) {
+            String userId = (String) like.getProperty("userId");
+            Long commentId = (Long) like.getProperty("commentId");
+
+            //likes that already have their key were counted when they were written
+            if(userId == null || commentId == null || like.getKey().equals(ShardedLikeCounter.createLikeKey(userId, commentId))) {
+                continue;
+            }
+
+            if(moveLike(datastore, like.getKey(), userId, commentId)) {
+                countedCommentIds.add(commentId);
+            }
+        }
+
+        for(long commentId : countedCommentIds) {
+            ShardedLikeCounter.scheduleTotalUpdate(commentId);
+        }
+        if(!countedCommentIds.isEmpty()) {
+            CommentCache.getInstance().invalidate();
+        }
+
+        response.setContentType("text/html");
+        response.getWriter().println(batch.size() < BATCH_SIZE ? "done" : batch.getCursor().toWebSafeString());
+    }
+
+    /**
+    * Moves one old Like to its new key and counts it, in a transaction so the like is counted once even if the user likes or
+    * unlikes the comment at the same time or the backfill is run again.
+    * @return boolean, true if the like was added to the counter
+    */
+    private boolean moveLike(DatastoreService datastore, Key oldKey, String userId, long commentId) {
+        //the old Like, the new Like and the counter shard are in different entity groups
+        Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+
+        try {
+            try {
+                datastore.get(txn, oldKey);
+            } catch (EntityNotFoundException e) {
+                //the user unliked the comment after the batch was read
+                return false;
+            }
+
+            datastore.delete(txn, oldKey);
+
+            Key likeKey = ShardedLikeCounter.createLikeKey(userId, commentId);
+            boolean counted = false;
+            try {
+                //the user liked the comment again since, and that like is already counted
+                datastore.get(txn, likeKey);
+            } catch (EntityNotFoundException e) {
+                Entity like = new Entity(likeKey);
+                like.setProperty("commentId", commentId);
+                like.setProperty("userId", userId);
+
+                datastore.put(txn, like);
+                ShardedLikeCounter.addToCount(datastore, txn, commentId, 1);
+                counted = true;
+            }
+
+            txn.commit();
+            return counted;
+
+        } catch (ConcurrentModificationException e) {
+            //the like is moved the next time the backfill runs
+            System.out.println("Could not move like: " + e.getMessage());
+            return false;
+        } finally {
+            if (txn.isActive()) {
+                txn.rollback();
+            }
+        }
+    }
+
+}
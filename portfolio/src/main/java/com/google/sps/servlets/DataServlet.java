@@ -16,11 +16,16 @@ package com.google.sps.servlets;
 
 import com.google.sps.data.Comment;
 import com.google.sps.data.Comment.CommentBuilder;
+import com.google.sps.data.CachedCommentPage;
+import com.google.sps.utilities.CommentCache;
 import com.google.sps.utilities.InputCleaner;
+import com.google.sps.utilities.JsonStreamWriter;
+import com.google.sps.utilities.ShardedLikeCounter;
 import com.google.sps.utilities.CommentTranslate;
 import com.google.sps.utilities.GoogleTranslate;
 import com.google.sps.utilities.FakeTranslate;
 import java.io.IOException;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -29,27 +34,24 @@ import javax.servlet.http.HttpServletResponse;
 import com.google.appengine.api.users.UserService;  
 import com.google.appengine.api.users.UserServiceFactory;
 import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.Key;
-import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
 import com.google.appengine.api.datastore.Query.SortDirection;
-import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
-import com.google.appengine.api.datastore.Query.CompositeFilter;
-import com.google.appengine.api.datastore.Query.FilterOperator;
-import com.google.cloud.translate.Translate;
-import com.google.cloud.translate.TranslateOptions;
-import com.google.cloud.translate.Translation;
-import com.google.cloud.translate.Detection;
 import java.lang.String;
-import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Optional;
 import java.util.Arrays;
-import java.util.Random; 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /** Servlet that returns comments from and adds comments to Datastore. */
 @WebServlet("/data")
@@ -58,6 +60,7 @@ public class DataServlet extends HttpServlet {
     private final int MAX_COMMENTS_DEFAULT = 5;
     private final String[] sortTypes =  new String[]{"newest", "oldest", "popular"};
     private static CommentTranslate translator;
+    private final CommentCache commentCache = CommentCache.getInstance();
 
     public void init() {
         //change this to GoogleTranslate when deploying
@@ -68,44 +71,38 @@ public class DataServlet extends HttpServlet {
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
         int maxComments = getMaxCommentParam(request, response);
         String sortType = getSortTypeParam(request, response);
-
-        Query query;
-
-        switch(sortType) {
-            case "popular":
-                query = new Query("Comment").addSort("numLikes", SortDirection.DESCENDING);
-                break;
-            case "oldest":
-                query = new Query("Comment").addSort("timestamp", SortDirection.ASCENDING);
-                break;
-            default:
-                query = new Query("Comment").addSort("timestamp", SortDirection.DESCENDING);
+        Optional<Cursor> startCursor;
+        try {
+            startCursor = getCursorParam(request);
+        } catch(IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+            return;
         }
 
+        String cursorKey = startCursor.map(Cursor::toWebSafeString).orElse(null);
         DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-        PreparedQuery results = datastore.prepare(query);
-
-        ArrayList<Comment> comments = new ArrayList<Comment>();
-        int numComments = 0;
-        for (Entity entity : results.asIterable()) {
-            
-            Comment comment = createComment(entity, datastore);
-            
-            if(comment == null) {
-                continue;
-            }
 
-            comments.add(comment);
-            numComments++;
-            
-            if(numComments == maxComments) {
-                break;
+        //the part of the page that is the same for every user is cached until comments or likes change
+        //the generation is read before loading, so a page loaded during a change is cached under the old generation
+        String generation = commentCache.getGeneration();
+        CachedCommentPage cachedPage = commentCache.get(generation, sortType, maxComments, cursorKey);
+        if(cachedPage == null) {
+            try {
+                cachedPage = loadPage(datastore, sortType, maxComments, startCursor);
+            } catch(IllegalArgumentException e) {
+                //Datastore only checks that the cursor is valid when the query runs
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+                return;
             }
+            commentCache.put(generation, sortType, maxComments, cursorKey, cachedPage);
         }
 
+        ArrayList<Comment> comments = addUserFields(datastore, cachedPage);
+        String nextCursor = cachedPage.getCursor();
+
         response.setCharacterEncoding("UTF-8");
         response.setContentType("application/json;");
-        response.getWriter().println(convertListToJson(comments));
+        writePage(response.getWriter(), comments, nextCursor, JsonStreamWriter.isLegacyFormat(request));
     }
 
     @Override
@@ -124,123 +121,182 @@ public class DataServlet extends HttpServlet {
 
         Entity commentEntity = createCommentEntity(request, userService);
         datastore.put(commentEntity);
+        commentCache.invalidate();
     
         response.sendRedirect("/comments.html");
 
     }
 
     /**
-    * Creates a new Comment object with the given entity. If required fields (message, timestamp, and id) are missing, returns null.
-    * @return Comment or null
+    * Reads a page of comments from Datastore, starting at startCursor. The comments only contain the fields that are the same for
+    * every user, so that the page can be cached.
+    * @return CachedCommentPage
     */
-    private Comment createComment(Entity entity, DatastoreService datastore) {
-        
-        Comment comment;
+    private CachedCommentPage loadPage(DatastoreService datastore, String sortType, int maxComments, Optional<Cursor> startCursor) {
+        Query query;
 
-        long id = entity.getKey().getId();
-        String name = (String) entity.getProperty("name");
-        String message = (String) entity.getProperty("message");
-        String email = (String) entity.getProperty("email");
-        long timestamp = (long) entity.getProperty("timestamp");
-        long numLikes = getNumLikesForComment(datastore, id);
-        boolean isLiked = isCommentLikedByUser(datastore, id);
-        String languageCode = translator.detectLanguage(message);
-        boolean isAuthor = isUserAuthorOfComment(datastore, id);
+        switch(sortType) {
+            case "popular":
+                query = new Query("Comment").addSort("numLikes", SortDirection.DESCENDING);
+                break;
+            case "oldest":
+                query = new Query("Comment").addSort("timestamp", SortDirection.ASCENDING);
+                break;
+            default:
+                query = new Query("Comment").addSort("timestamp", SortDirection.DESCENDING);
+        }
 
-        try {
-            comment = new CommentBuilder().setName(name)
-                                        .setMessage(message)
-                                        .setEmail(email)
-                                        .setTimestamp(timestamp)
-                                        .setNumLikes(numLikes)
-                                        .setIsLiked(isLiked)
-                                        .setLanguageCode(languageCode)
-                                        .setIsAuthor(isAuthor)
-                                        .setId(id).build();
-        } catch (NullPointerException e) {
-            System.out.println("Missing field (message, timestamp, or id) in comment.");
-            comment = null;
+        PreparedQuery results = datastore.prepare(query);
+
+        //only read the requested page, starting where the previous page ended
+        FetchOptions fetchOptions = FetchOptions.Builder.withDefaults();
+        if(maxComments != Integer.MAX_VALUE) {
+            fetchOptions.limit(maxComments);
         }
+        startCursor.ifPresent(fetchOptions::startCursor);
 
-        return comment;
+        QueryResultList<Entity> page = results.asQueryResultList(fetchOptions);
+
+        //collect the page of comment entities first so that their likes can be looked up together
+        ArrayList<Entity> commentEntities = new ArrayList<Entity>();
+        for (Entity entity : page) {
 
+            //skip comments that are missing required fields, they will not be shown
+            if(entity.getProperty("message") == null || entity.getProperty("timestamp") == null) {
+                continue;
+            }
+
+            commentEntities.add(entity);
+        }
+
+        //a page that is not full is the last page
+        String nextCursor = page.size() < maxComments ? null : page.getCursor().toWebSafeString();
+
+        return hydrateComments(datastore, commentEntities, nextCursor);
     }
 
     /**
-    * Gets the count of Like entities with commentId that is equal to the commentId parameter.
-    * @return long
+    * Creates Comment objects for a page of comment entities. The number of likes of all comments on the page is resolved with
+    * one batch get instead of a query per comment.
+    * @return CachedCommentPage
     */
-    private long getNumLikesForComment(DatastoreService datastore, long commentId) {
+    private CachedCommentPage hydrateComments(DatastoreService datastore, List<Entity> commentEntities, String nextCursor) {
+        ArrayList<Comment> comments = new ArrayList<Comment>();
+        ArrayList<String> authorIds = new ArrayList<String>();
 
-        Query query = new Query("Like").setFilter(FilterOperator.EQUAL.of("commentId", commentId));
+        if(commentEntities.isEmpty()) {
+            return new CachedCommentPage(comments, authorIds, nextCursor);
+        }
+
+        List<Long> commentIds = commentEntities.stream().map(e -> e.getKey().getId()).collect(Collectors.toList());
+        Map<Long, Long> numLikes = ShardedLikeCounter.getCounts(datastore, commentIds);
 
-        PreparedQuery pq = datastore.prepare(query);
+        for(Entity entity : commentEntities) {
+            long id = entity.getKey().getId();
 
-        return pq.countEntities();
+            Comment comment = createComment(entity, numLikes.getOrDefault(id, 0L));
+
+            if(comment != null) {
+                comments.add(comment);
+                authorIds.add((String) entity.getProperty("userId"));
+            }
+        }
+
+        return new CachedCommentPage(comments, authorIds, nextCursor);
     }
 
     /**
-    * Determines if the current user is the author of the comment with id. 
-    * @return boolean
+    * Sets isLiked and isAuthor for the current user on the comments of a cached page. The comments liked by the user are found
+    * with one batch get for the whole page, and the author of each comment is stored in the page.
+    * @return ArrayList<Comment>
     */
-    private boolean isUserAuthorOfComment(DatastoreService datastore, long id) {
+    private ArrayList<Comment> addUserFields(DatastoreService datastore, CachedCommentPage page) {
+        ArrayList<Comment> comments = new ArrayList<Comment>();
 
         UserService userService = UserServiceFactory.getUserService();
 
-        // Comments can only be submitted if a user is logged in, so a logged out user can never be the author
-        if (!userService.isUserLoggedIn()) {
-            return false;
+        //a logged out user has not liked or written any comments
+        if(!userService.isUserLoggedIn()) {
+            comments.addAll(page.getComments());
+            return comments;
         }
 
         String userId = userService.getCurrentUser().getUserId();
+        List<Long> commentIds = page.getComments().stream().map(Comment::getId).collect(Collectors.toList());
+        Set<Long> likedCommentIds = getCommentsLikedByUser(datastore, userId, commentIds);
+
+        for(int i = 0; i < page.getComments().size(); i++) {
+            Comment comment = page.getComments().get(i);
+
+            comments.add(new CommentBuilder(comment).setIsLiked(likedCommentIds.contains(comment.getId()))
+                                                    .setIsAuthor(userId.equals(page.getAuthorIds().get(i)))
+                                                    .build());
+        }
+
+        return comments;
+    }
+
+    /**
+    * Creates a new Comment object with the given entity. If required fields (message, timestamp, and id) are missing, returns null.
+    * @return Comment or null
+    */
+    private Comment createComment(Entity entity, long numLikes) {
+        
+        Comment comment;
 
-        Key commentEntityKey = KeyFactory.createKey("Comment", id);
+        long id = entity.getKey().getId();
+        String name = (String) entity.getProperty("name");
+        String message = (String) entity.getProperty("message");
+        String email = (String) entity.getProperty("email");
+        long timestamp = (long) entity.getProperty("timestamp");
+        //detected when the comment was written, comments from before that have no languageCode until they are backfilled
+        String languageCode = (String) entity.getProperty("languageCode");
 
         try {
-            Entity commentEntity = datastore.get(commentEntityKey);
+            CommentBuilder builder = new CommentBuilder().setName(name)
+                                        .setMessage(message)
+                                        .setEmail(email)
+                                        .setTimestamp(timestamp)
+                                        .setNumLikes(numLikes)
+                                        .setId(id);
 
-            //if the comment's userId matches the current user, then the current user is the author of the comment
-            if(commentEntity.getProperty("userId").equals(userId)) {
-                return true;
+            if(languageCode != null) {
+                builder.setLanguageCode(languageCode);
             }
-            
 
-        } catch (EntityNotFoundException e)  {
-            System.out.println("Entity not found.");
+            comment = builder.build();
+        } catch (NullPointerException e) {
+            System.out.println("Missing field (message, timestamp, or id) in comment.");
+            comment = null;
         }
 
-        return false;
+        return comment;
 
     }
 
     /**
-    * Determines if a comment is liked by the current user (if the user is logged in). 
-    * @return boolean: if the user is not logged in returns false, if the user is logged in and there is a Like entity matching the userId and commentId returns true
+    * Gets the ids of the comments in commentIds that were liked by the user with userId. A Like's key is made from the user and
+    * the comment, so the likes of a page are read with one batch get of their keys instead of a query over all of the user's
+    * likes.
+    * @return Set<Long>
     */
-    private boolean isCommentLikedByUser(DatastoreService datastore, long commentId) {
-        UserService userService = UserServiceFactory.getUserService();
+    static Set<Long> getCommentsLikedByUser(DatastoreService datastore, String userId, List<Long> commentIds) {
+        Set<Long> likedCommentIds = new HashSet<Long>();
 
-        // Only save comments for logged-in users 
-        if (!userService.isUserLoggedIn()) {
-            return false;
+        if(commentIds.isEmpty()) {
+            return likedCommentIds;
         }
 
-        String userId = userService.getCurrentUser().getUserId();
-
-        CompositeFilter filter = CompositeFilterOperator.and(FilterOperator.EQUAL.of("userId", userId), FilterOperator.EQUAL.of("commentId", commentId));
-        Query query = new Query("Like").setFilter(filter);
-
-        PreparedQuery pq = datastore.prepare(query);
-       
-        //there should at most only be 1 result
-        Entity result = pq.asSingleEntity();
+        List<Key> likeKeys = new ArrayList<Key>();
+        for(long commentId : commentIds) {
+            likeKeys.add(ShardedLikeCounter.createLikeKey(userId, commentId));
+        }
 
-        //if there was no entity that matched the userId and commentId, then the user has not liked the comment
-        if(result == null) {
-            return false;
+        for(Entity like : datastore.get(likeKeys).values()) {
+            likedCommentIds.add((long) like.getProperty("commentId"));
         }
 
-        return true;
+        return likedCommentIds;
     }
 
     /**
@@ -268,6 +324,10 @@ public class DataServlet extends HttpServlet {
         commentEntity.setProperty("email", email);
         commentEntity.setProperty("timestamp", timestamp);
         commentEntity.setProperty("userId", userId);
+        //detect the language once here instead of every time the comment is read
+        commentEntity.setProperty("languageCode", translator.detectLanguage(message));
+        //new comments start with no likes, this is kept up to date by the like and unlike servlets for the "popular" sort
+        commentEntity.setProperty("numLikes", 0L);
 
         return commentEntity;
 
@@ -323,19 +383,38 @@ public class DataServlet extends HttpServlet {
     }
 
     /**
-    * This method converts a list of comments to a JSON string.
-    * @return String, the list of comments as a JSON string
+    * Gets the cursor parameter, which is the cursor returned with the previous page of comments. Throws
+    * IllegalArgumentException if the cursor can not be decoded.
+    * @return Optional<Cursor>, empty if there is no cursor (the first page is loaded)
+    */
+    private Optional<Cursor> getCursorParam(HttpServletRequest request) {
+        return getParameter(request, "cursor").map(Cursor::fromWebSafeString);
+    }
+
+    /**
+    * Writes a page of comments and the cursor for the next page to the response as JSON, one comment at a time. The legacy
+    * format is the array of JSON strings the pages read before comments were paged, with no cursor.
     */
-    private String convertListToJson(ArrayList<Comment> comments) {
-        ArrayList<String> jsonComments = new ArrayList<String>();
-        Gson gson = new Gson();
-        //convert all Comment objects to JSON
+    static void writePage(PrintWriter out, List<Comment> comments, String cursor, boolean legacyFormat) throws IOException {
+        JsonStreamWriter writer = new JsonStreamWriter(out, legacyFormat);
+
+        if(legacyFormat) {
+            writer.beginArray();
+            for(Comment c : comments) {
+                writer.element(c);
+            }
+            writer.endArray().flush();
+            out.println();
+            return;
+        }
+
+        writer.beginObject().name("comments").beginArray();
         for(Comment c : comments) {
-            jsonComments.add(gson.toJson(c));
+            writer.element(c);
         }
+        writer.endArray().name("cursor").value(cursor).endObject();
 
-        //convert list to JSON
-        return gson.toJson(jsonComments);
+        writer.flush();
     }
 
     /**
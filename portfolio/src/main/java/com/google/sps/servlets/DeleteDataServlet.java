@@ -14,6 +14,8 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.ShardedLikeCounter;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -42,6 +44,8 @@ public class DeleteDataServlet extends HttpServlet {
         datastore.delete(commentEntityKey);
 
         deleteLikes(datastore, id);
+        ShardedLikeCounter.deleteCounter(datastore, id);
+        CommentCache.getInstance().invalidate();
 
         response.sendRedirect("/comments.html");
     
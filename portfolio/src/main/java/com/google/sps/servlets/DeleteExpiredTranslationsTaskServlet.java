@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.sps.utilities.CachingTranslate;
+import java.io.IOException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+* Servlet that deletes the cached translations that have expired, called by cron (see cron.xml). Translations are only
+* replaced when they are asked for again, so without this the ones that are never asked for again would be kept forever.
+*/
+@WebServlet(CachingTranslate.DELETE_EXPIRED_URL)
+public class DeleteExpiredTranslationsTaskServlet extends HttpServlet {
+
+    private final int BATCH_SIZE = 500;
+    //keeps the request well within the cron request deadline, the rest is deleted by the next run
+    private final int MAX_BATCHES = 100;
+
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        //App Engine removes this header from requests that did not come from cron
+        if(request.getHeader("X-Appengine-Cron") == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        long now = System.currentTimeMillis();
+
+        int deleted = 0;
+        for(int batch = 0; batch < MAX_BATCHES; batch++) {
+            int batchDeleted = CachingTranslate.deleteExpired(datastore, now, BATCH_SIZE);
+            deleted += batchDeleted;
+
+            if(batchDeleted < BATCH_SIZE) {
+                break;
+            }
+        }
+
+        response.setContentType("text/html");
+        response.getWriter().println(deleted);
+    }
+
+}
@@ -14,6 +14,8 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.ShardedLikeCounter;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -24,7 +26,6 @@ import com.google.appengine.api.users.UserServiceFactory;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Key;
-import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.EntityNotFoundException;
 import com.google.appengine.api.datastore.Transaction;
@@ -40,7 +41,8 @@ public class LikeCommentServlet extends HttpServlet {
         long commentId = Long.parseLong(request.getParameter("id"));
 
         DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-        Transaction txn = datastore.beginTransaction();
+        //the Like entity and the counter shard are in different entity groups
+        Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
 
         try {
 
@@ -53,12 +55,23 @@ public class LikeCommentServlet extends HttpServlet {
 
             String userId = userService.getCurrentUser().getUserId();
 
-            Entity entity = new Entity("Like", userId);
+            //one Like entity per user and comment, so liking a comment twice does not count twice
+            Key likeKey = ShardedLikeCounter.createLikeKey(userId, commentId);
+
+            try {
+                datastore.get(txn, likeKey);
+                return;
+            } catch (EntityNotFoundException e) {
+                //the user has not liked this comment yet
+            }
+
+            Entity entity = new Entity(likeKey);
             
             entity.setProperty("commentId", commentId);
             entity.setProperty("userId", userId);
 
             datastore.put(txn, entity);
+            ShardedLikeCounter.addToCount(datastore, txn, commentId, 1);
 
             txn.commit();
 
@@ -67,6 +80,9 @@ public class LikeCommentServlet extends HttpServlet {
             txn.rollback();
           }
         }
+
+        ShardedLikeCounter.scheduleTotalUpdate(commentId);
+        CommentCache.getInstance().invalidate();
     
     }
 
@@ -14,45 +14,39 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.utilities.WriteBehindCounter;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import com.google.appengine.api.datastore.DatastoreService;
-import com.google.appengine.api.datastore.DatastoreServiceFactory;
-import com.google.appengine.api.datastore.Key;
-import com.google.appengine.api.datastore.KeyFactory;
-import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.EntityNotFoundException;
 
 
 /** Servlet that increments the number of likes of a song recommendation. */
 @WebServlet("/like-rec")
 public class LikeSongRecServlet extends HttpServlet {
 
-    @Override
-    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        long id = Long.parseLong(request.getParameter("id"));
+    //how often the buffered likes are written to Datastore
+    private final long FLUSH_INTERVAL_MILLIS = 2000;
+    private WriteBehindCounter likeCounter;
 
-        //get song entity corresponding to id from datastore
-        Key songRecEntityKey = KeyFactory.createKey("SongRec", id);
-        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-
-        try {
-            Entity songRecEntity = datastore.get(songRecEntityKey);
-
-            //calculate the number of likes using the previous number of likes
-            long numLikes = (long) songRecEntity.getProperty("numLikes") + 1;
+    @Override
+    public void init() {
+        likeCounter = new WriteBehindCounter("SongRec", "numLikes", FLUSH_INTERVAL_MILLIS);
+    }
 
-            songRecEntity.setProperty("numLikes", numLikes);
+    @Override
+    public void destroy() {
+        //write the likes that have not been flushed yet before the instance shuts down
+        likeCounter.shutdown();
+    }
 
-            datastore.put(songRecEntity);
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long id = Long.parseLong(request.getParameter("id"));
 
-        } catch (EntityNotFoundException e)  {
-            response.setContentType("text/html");
-            response.getWriter().println("Entity not found.");
-        }
+        //likes are added up in memory and written in transactions by the counter, so concurrent likes are not lost
+        likeCounter.add(id, 1);
     
     }
 
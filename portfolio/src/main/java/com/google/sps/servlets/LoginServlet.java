@@ -22,7 +22,7 @@ import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import com.google.gson.Gson;
+import com.google.sps.utilities.JsonSerialization;
 
 /** Servlet that checks if a user is logged in or not. */
 @WebServlet("/login")
@@ -40,7 +40,7 @@ public class LoginServlet extends HttpServlet {
         status = new LoginStatus(false, userService.createLoginURL("/comments.html"));
     }
 
-    String jsonStatus = new Gson().toJson(status);
+    String jsonStatus = JsonSerialization.GSON.toJson(status);
 
     response.setContentType("application/json;");
     response.getWriter().println(jsonStatus);
@@ -15,47 +15,118 @@
 package com.google.sps.servlets;
 
 import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerCluster;
+import com.google.sps.utilities.Geohash;
 import com.google.sps.utilities.InputCleaner;
+import com.google.sps.utilities.JsonStreamWriter;
+import com.google.sps.utilities.MarkerIndex;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import com.google.appengine.api.datastore.DatastoreFailureException;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
-import com.google.appengine.api.datastore.PreparedQuery;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
 import org.jsoup.Jsoup;
 import org.jsoup.safety.Whitelist;
 import java.util.Optional;
 import java.lang.String;
-import com.google.gson.Gson;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
-/** Handles fetching and saving markers data. */
+/**
+* Handles fetching and saving markers data. Markers are read from an in-memory MarkerIndex on this instance instead of from
+* Datastore. The index is loaded once, markers saved on this instance are added to it right away, and every
+* REFRESH_INTERVAL_MILLIS only the markers saved since the last refresh are read to pick up markers saved on other instances.
+*/
 @WebServlet("/markers")
 public class MarkerServlet extends HttpServlet {
+    //markers are clustered on maps zoomed out further than this
+    private final int MAX_CLUSTER_ZOOM = 9;
+    private final int GEOHASH_PRECISION = 9;
+    private final long REFRESH_INTERVAL_MILLIS = 60 * 1000;
+    //queries can miss markers for a while after they are saved, so each refresh reads this far back before the last one
+    private final long CONSISTENCY_WINDOW_MILLIS = 60 * 1000;
+    private final int LOAD_CHUNK_SIZE = 1000;
+    private final int DEFAULT_NUM_NEAREST = 10;
+    private final int MAX_NUM_NEAREST = 100;
+
+    private volatile MarkerIndex markerIndex;
+    private volatile long lastRefreshMillis = 0;
+    //start of the last load or refresh that read Datastore without failing
+    private long loadedUntilMillis = 0;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    //keys and timestamps of the indexed markers that the next refresh can read again, so they are not added twice. Also
+    //guards adding markers to the index.
+    private final Map<Key, Long> recentMarkers = new HashMap<Key, Long>();
+
     @Override
-    public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    public void init() {
+        try {
+            loadMarkerIndex();
+        } catch(DatastoreFailureException e) {
+            //the first request tries again
+            System.out.println("Could not load markers: " + e.getMessage());
+        }
+    }
 
-        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+    @Override
+    public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
-        Query query = new Query("Marker");
-        PreparedQuery results = datastore.prepare(query);
+        MarkerIndex index = getMarkerIndex();
 
-        ArrayList<Marker> markers = new ArrayList<Marker>();
+        //south, west, north, east of the visible part of the map, if the page sent them
+        Optional<double[]> bounds = getBoundsParam(request, response);
+        Optional<Integer> zoom = getZoomParam(request, response);
+        //point to find the closest markers to, if the page sent it
+        Optional<double[]> nearPoint = getNearPointParam(request, response);
 
-        for (Entity entity : results.asIterable()) {
-            
-            markers.add(createMarker(entity));
-            
+        int[] markers;
+        if(nearPoint.isPresent()) {
+            markers = index.nearest(nearPoint.get()[0], nearPoint.get()[1], getNumNearestParam(request, response));
+        } else if(bounds.isPresent()) {
+            markers = index.search(bounds.get()[0], bounds.get()[1], bounds.get()[2], bounds.get()[3]);
+        } else {
+            markers = index.search(-90, -180, 90, 180);
         }
 
         response.setCharacterEncoding("UTF-8");
         response.setContentType("application/json;");
-        response.getWriter().println(convertListToJson(markers));
+
+        boolean legacyFormat = JsonStreamWriter.isLegacyFormat(request);
+        JsonStreamWriter writer = new JsonStreamWriter(response.getWriter(), legacyFormat);
+        writer.beginArray();
+
+        if(!nearPoint.isPresent() && zoom.isPresent() && zoom.get() <= MAX_CLUSTER_ZOOM) {
+            for(Object markerOrCluster : clusterMarkers(index, markers, zoom.get())) {
+                writer.element(markerOrCluster);
+            }
+        } else {
+            for (int marker : markers) {
+                
+                writer.element(createMarker(index, marker));
+                
+            }
+        }
+
+        writer.endArray().flush();
+        if(legacyFormat) {
+            //the old response ended with a new line
+            response.getWriter().println();
+        }
 
     }
 
@@ -87,26 +158,256 @@ public class MarkerServlet extends HttpServlet {
             return;
         }
 
+        //load the index first, so the marker is added to the index that is used from now on
+        MarkerIndex index = getMarkerIndex();
+
         Marker marker = new Marker(lat, lng, description);
         DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
         Entity markerEntity = createMarkerEntity(marker);
         datastore.put(markerEntity);
+
+        synchronized (recentMarkers) {
+            addIfNew(index, markerEntity, 0);
+        }
     }
 
     /**
-    * Creates a new Marker object with the given identity. 
+    * Creates a new Marker object from a marker in the index.
     * @return Marker
     */
-    private Marker createMarker(Entity entity) {
+    private Marker createMarker(MarkerIndex index, int marker) {
+
+        return new Marker(index.getLat(marker), index.getLng(marker), index.getDescription(marker));
+
+    }
+
+    /**
+    * Gets the marker index, loading it first if it was never loaded. If the last refresh was more than
+    * REFRESH_INTERVAL_MILLIS ago, one request adds the markers saved since then while the others keep using the index as it
+    * is. App Engine does not allow Datastore calls from background threads, so the refresh runs on a request thread, but it
+    * only reads the markers saved in the last few minutes.
+    * @return MarkerIndex
+    */
+    private MarkerIndex getMarkerIndex() {
+        if(markerIndex == null) {
+            refreshLock.lock();
+            try {
+                if(markerIndex == null) {
+                    loadMarkerIndex();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        } else if(System.currentTimeMillis() - lastRefreshMillis > REFRESH_INTERVAL_MILLIS && refreshLock.tryLock()) {
+            try {
+                refreshMarkerIndex();
+            } catch(DatastoreFailureException e) {
+                //the next refresh reads from the same time again
+                System.out.println("Could not refresh markers: " + e.getMessage());
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+
+        return markerIndex;
+    }
+
+    /**
+    * Builds the index of all Marker entities.
+    */
+    private void loadMarkerIndex() {
+        long loadStartMillis = System.currentTimeMillis();
+        lastRefreshMillis = loadStartMillis;
+
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        MarkerIndex index = new MarkerIndex();
+
+        synchronized (recentMarkers) {
+            for(Entity entity : datastore.prepare(new Query("Marker")).asIterable(FetchOptions.Builder.withChunkSize(LOAD_CHUNK_SIZE))) {
+                addIfNew(index, entity, loadStartMillis - CONSISTENCY_WINDOW_MILLIS);
+            }
+
+            loadedUntilMillis = loadStartMillis;
+            markerIndex = index;
+        }
+    }
+
+    /**
+    * Adds the markers saved since the last refresh to the index. Markers saved up to CONSISTENCY_WINDOW_MILLIS before the
+    * last refresh are read again, in case its query missed them.
+    */
+    private void refreshMarkerIndex() {
+        long refreshStartMillis = System.currentTimeMillis();
+        lastRefreshMillis = refreshStartMillis;
+
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        Query query = new Query("Marker")
+            .setFilter(new FilterPredicate("timestamp", FilterOperator.GREATER_THAN_OR_EQUAL, loadedUntilMillis - CONSISTENCY_WINDOW_MILLIS));
+        List<Entity> newMarkers = datastore.prepare(query).asList(FetchOptions.Builder.withChunkSize(LOAD_CHUNK_SIZE));
+
+        long keepSinceMillis = refreshStartMillis - CONSISTENCY_WINDOW_MILLIS;
+        synchronized (recentMarkers) {
+            for(Entity entity : newMarkers) {
+                addIfNew(markerIndex, entity, keepSinceMillis);
+            }
+
+            //the next refresh does not read markers this old again
+            recentMarkers.values().removeIf(timestamp -> timestamp < keepSinceMillis);
+            loadedUntilMillis = refreshStartMillis;
+        }
+    }
+
+    /**
+    * Adds the marker to the index if it is not there yet, and remembers its key if it was saved after keepSinceMillis so a
+    * later refresh does not add it again. Call this while holding the recentMarkers lock.
+    */
+    private void addIfNew(MarkerIndex index, Entity entity, long keepSinceMillis) {
+        if(recentMarkers.containsKey(entity.getKey())) {
+            return;
+        }
+
+        addToIndex(index, entity);
 
+        //markers saved before timestamps were stored are only read by the first load
+        Long timestamp = (Long) entity.getProperty("timestamp");
+        if(timestamp != null && timestamp >= keepSinceMillis) {
+            recentMarkers.put(entity.getKey(), timestamp);
+        }
+    }
+
+    private void addToIndex(MarkerIndex index, Entity entity) {
         double lat = (double) entity.getProperty("lat");
         double lng = (double) entity.getProperty("lng");
         String description = (String) entity.getProperty("description");
 
-        Marker marker = new Marker(lat, lng, description);
+        index.add(lat, lng, description);
+    }
 
-        return marker;
+    /**
+    * Groups the markers into clusters of markers in the same geohash cell, with bigger cells the further the map is zoomed out.
+    * A cell with only one marker is returned as that marker so its description can still be shown.
+    * @return List<Object>, Marker and MarkerCluster objects
+    */
+    private List<Object> clusterMarkers(MarkerIndex index, int[] markers, int zoom) {
+        //about 8 cells across the width of a map at this zoom
+        int precision = Math.max(1, Math.round(2f * (zoom + 1) / 5));
+
+        Map<String, MarkerCluster> clusters = new LinkedHashMap<String, MarkerCluster>();
+        Map<String, Integer> firstMarkers = new HashMap<String, Integer>();
+
+        for(int marker : markers) {
+            double lat = index.getLat(marker);
+            double lng = index.getLng(marker);
+            String cell = Geohash.encode(lat, lng, precision);
+
+            clusters.computeIfAbsent(cell, c -> new MarkerCluster()).add(lat, lng);
+            firstMarkers.putIfAbsent(cell, marker);
+        }
+
+        List<Object> markersAndClusters = new ArrayList<Object>();
+        for(Map.Entry<String, MarkerCluster> cluster : clusters.entrySet()) {
+            if(cluster.getValue().getCount() == 1) {
+                markersAndClusters.add(createMarker(index, firstMarkers.get(cluster.getKey())));
+            } else {
+                markersAndClusters.add(cluster.getValue());
+            }
+        }
+
+        return markersAndClusters;
+    }
+
+    /**
+    * Gets the south, west, north and east parameters, which are the edges of the visible part of the map.
+    * @return Optional<double[]>, {south, west, north, east} or empty if any of them is missing or invalid
+    */
+    private Optional<double[]> getBoundsParam(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<String> south = getParameter(request, "south");
+        Optional<String> west = getParameter(request, "west");
+        Optional<String> north = getParameter(request, "north");
+        Optional<String> east = getParameter(request, "east");
+
+        if(!south.isPresent() || !west.isPresent() || !north.isPresent() || !east.isPresent()) {
+            return Optional.empty();
+        }
+
+        try {
+            double[] bounds = {Double.parseDouble(south.get()), Double.parseDouble(west.get()),
+                               Double.parseDouble(north.get()), Double.parseDouble(east.get())};
+
+            if(bounds[0] < -90 || bounds[2] > 90 || bounds[0] > bounds[2] || Math.abs(bounds[1]) > 180 || Math.abs(bounds[3]) > 180) {
+                response.getWriter().println("Invalid value for bounds.");
+                return Optional.empty();
+            }
 
+            return Optional.of(bounds);
+
+        } catch(NumberFormatException e) {
+            response.getWriter().println("Invalid value for bounds.");
+            return Optional.empty();
+        }
+    }
+
+    /**
+    * Gets the near-lat and near-lng parameters, a point to find the closest markers to.
+    * @return Optional<double[]>, {lat, lng} or empty if either of them is missing or invalid
+    */
+    private Optional<double[]> getNearPointParam(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<String> lat = getParameter(request, "near-lat");
+        Optional<String> lng = getParameter(request, "near-lng");
+
+        if(!lat.isPresent() || !lng.isPresent()) {
+            return Optional.empty();
+        }
+
+        try {
+            double[] point = {Double.parseDouble(lat.get()), Double.parseDouble(lng.get())};
+
+            if(Math.abs(point[0]) > 90 || Math.abs(point[1]) > 180) {
+                response.getWriter().println("Invalid value for near point.");
+                return Optional.empty();
+            }
+
+            return Optional.of(point);
+
+        } catch(NumberFormatException e) {
+            response.getWriter().println("Invalid value for near point.");
+            return Optional.empty();
+        }
+    }
+
+    /**
+    * Gets the k parameter, which is the number of closest markers to return.
+    * @return int, DEFAULT_NUM_NEAREST if it is missing or invalid
+    */
+    private int getNumNearestParam(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        int k;
+
+        try {
+            k = Integer.parseInt(getParameter(request, "k").orElse(Integer.toString(DEFAULT_NUM_NEAREST)));
+        } catch(NumberFormatException e) {
+            response.getWriter().println("Invalid value for k.");
+            return DEFAULT_NUM_NEAREST;
+        }
+
+        if(k < 1 || k > MAX_NUM_NEAREST) {
+            response.getWriter().println("Invalid value for k. Must be in between 1 and " + MAX_NUM_NEAREST + ".");
+            return DEFAULT_NUM_NEAREST;
+        }
+
+        return k;
+    }
+
+    /**
+    * Gets the zoom parameter, which is the zoom level of the map.
+    * @return Optional<Integer>, empty if it is missing or invalid
+    */
+    private Optional<Integer> getZoomParam(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try {
+            return getParameter(request, "zoom").map(Integer::parseInt);
+        } catch(NumberFormatException e) {
+            response.getWriter().println("Invalid value for zoom.");
+            return Optional.empty();
+        }
     }
 
     /**
@@ -122,28 +423,15 @@ public class MarkerServlet extends HttpServlet {
         markerEntity.setProperty("lat", marker.getLat());
         markerEntity.setProperty("lng", marker.getLng());
         markerEntity.setProperty("description", description);
+        //lets each refresh read only the markers saved since the last one
+        markerEntity.setProperty("timestamp", System.currentTimeMillis());
+        //lets markers in a part of the map be found with range queries on the geohash
+        markerEntity.setProperty("geohash", Geohash.encode(marker.getLat(), marker.getLng(), GEOHASH_PRECISION));
 
         return markerEntity;
 
     }
 
-    /**
-    * This method converts a list of markers to a JSON string.
-    * @return String, the list of markers as a JSON string
-    */
-    private String convertListToJson(ArrayList<Marker> markers) {
-        ArrayList<String> jsonMarkers = new ArrayList<String>();
-        Gson gson = new Gson();
-        //convert all Marker objects to JSON
-        for(Marker m : markers) {
-            jsonMarkers.add(gson.toJson(m));
-        }
-
-        //convert list to JSON
-        return gson.toJson(jsonMarkers);
-    }
-
-
     /**
     * @return an Optional of the request parameter
     */
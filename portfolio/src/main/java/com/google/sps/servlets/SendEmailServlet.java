@@ -14,15 +14,15 @@
 
 package com.example.appengine.mail;
 
+import com.google.appengine.api.utils.SystemProperty;
+import com.google.sps.data.ContactEmail;
+import com.google.sps.data.EmailStats;
+import com.google.sps.utilities.EmailMetrics;
+import com.google.sps.utilities.EmailQueue;
+import com.google.sps.utilities.ExecutorEmailQueue;
+import com.google.sps.utilities.JavaMailTransport;
+import com.google.sps.utilities.TaskQueueEmailQueue;
 import java.io.IOException;
-import java.util.Properties;
-import javax.mail.Message;
-import javax.mail.MessagingException;
-import javax.mail.Session;
-import javax.mail.Transport;
-import javax.mail.internet.AddressException;
-import javax.mail.internet.InternetAddress;
-import javax.mail.internet.MimeMessage;
 
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -30,32 +30,51 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.util.Optional;
 
-/** Servlet that sends an email when contact form is submitted */
+/**
+* Servlet that queues an email when contact form is submitted, so the page is redirected without waiting for the mail
+* server. Emails submitted close together are sent as one digest. On App Engine emails are queued as tasks, elsewhere they are
+* sent on a few threads in this process.
+*/
 @WebServlet("/send-email")
 public class SendEmailServlet extends HttpServlet {
 
+    //emails submitted within this window are sent together as one digest
+    private final long DIGEST_WINDOW_MILLIS = 60 * 1000;
+    //the same email submitted again within this window is only sent once
+    private final long COALESCE_WINDOW_MILLIS = 10 * 60 * 1000;
+    private final int NUM_SENDER_THREADS = 2;
+    private final int MAX_QUEUED_EMAILS = 100;
+    private final long INITIAL_BACKOFF_MILLIS = 1000;
+
+    private static EmailQueue emailQueue;
+
     @Override
-    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        Properties props = new Properties();
-        Session session = Session.getDefaultInstance(props, null);
+    public void init() {
+        //the environment is only set when running on App Engine or its development server
+        if(SystemProperty.environment.value() != null) {
+            emailQueue = new TaskQueueEmailQueue(DIGEST_WINDOW_MILLIS, COALESCE_WINDOW_MILLIS);
+        } else {
+            emailQueue = new ExecutorEmailQueue(new JavaMailTransport(), NUM_SENDER_THREADS, MAX_QUEUED_EMAILS,
+                                                DIGEST_WINDOW_MILLIS, COALESCE_WINDOW_MILLIS, INITIAL_BACKOFF_MILLIS);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        //send the emails that are already queued before the server shuts down
+        if(emailQueue instanceof ExecutorEmailQueue) {
+            ((ExecutorEmailQueue) emailQueue).shutdown();
+        }
+    }
 
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
         //get values from form
         String from = getParameter(request, "email").orElse("anonymous");
-        String subject = "Message from " + getParameter(request, "name").orElse("Anonymous") + ": " + from;
+        String name = getParameter(request, "name").orElse("Anonymous");
         String message = getParameter(request, "message").orElse("");
 
-        try {
-            Message msg = new MimeMessage(session);
-            //appengine lets us use anything@[PROJECT_ID].appspotmail.com for email sending: https://cloud.google.com/appengine/docs/standard/java/mail
-            msg.setFrom(new InternetAddress("contact@kashisharora-step-2020.appspotmail.com", "Kashish's Portfolio Contact"));
-            msg.addRecipient(Message.RecipientType.TO,
-                            new InternetAddress("kashisharora@google.com", "Kashish Arora"));
-            msg.setSubject(subject);
-            msg.setText(message);
-            Transport.send(msg);
-        } catch (AddressException e) {
-            response.getWriter().println("Failed to send email.");
-        } catch (MessagingException e) {
+        if(!emailQueue.enqueue(new ContactEmail(from, name, message))) {
             response.getWriter().println("Failed to send email.");
         }
 
@@ -63,6 +82,10 @@ public class SendEmailServlet extends HttpServlet {
 
     }
 
+    public static EmailStats getEmailStats() {
+        return EmailMetrics.getInstance().getStats(emailQueue == null ? 0 : emailQueue.getQueueDepth());
+    }
+
     /**
    * @return an Optional of the request parameter
    */
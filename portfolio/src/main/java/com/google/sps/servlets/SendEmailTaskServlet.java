@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.servlets;
+
+import com.google.sps.utilities.JavaMailTransport;
+import com.google.sps.utilities.MailTransport;
+import com.google.sps.utilities.TaskQueueEmailQueue;
+import java.io.IOException;
+import javax.mail.MessagingException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+* Servlet that sends the contact emails queued by TaskQueueEmailQueue as digests, called at the end of each digest window.
+* If sending fails it responds with an error so the task queue retries the task with backoff.
+*/
+@WebServlet(TaskQueueEmailQueue.WORKER_URL)
+public class SendEmailTaskServlet extends HttpServlet {
+
+    private MailTransport transport;
+
+    @Override
+    public void init() {
+        transport = new JavaMailTransport();
+    }
+
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        //App Engine removes this header from requests that did not come from a task queue
+        if(request.getHeader("X-AppEngine-QueueName") == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        try {
+            TaskQueueEmailQueue.sendDigests(transport);
+        } catch (MessagingException e) {
+            System.out.println("Failed to send email: " + e.getMessage());
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+    }
+
+}
@@ -16,21 +16,23 @@ package com.google.sps.servlets;
 
 import com.google.sps.data.SongRec;
 import com.google.sps.utilities.InputCleaner;
+import com.google.sps.utilities.JsonStreamWriter;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.PreparedQuery;
 import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.QueryResultList;
 import com.google.appengine.api.datastore.Query.SortDirection;
-import java.util.Iterator;
 import java.lang.String;
-import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Optional;
 
@@ -38,44 +40,55 @@ import java.util.Optional;
 @WebServlet("/recs")
 public class SongRecServlet extends HttpServlet {
 
-    private final long NUM_RECS_TO_LOAD = 5;
+    private final int NUM_RECS_TO_LOAD = 5;
 
     @Override
     public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-        //get the number of songs loaded so far
-        int numLoadedRecs = getNumLoadedParam(request, response);
         //sort by number of likes
         Query query = new Query("SongRec").addSort("numLikes", SortDirection.DESCENDING);
 
         DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
         PreparedQuery results = datastore.prepare(query);
 
-        ArrayList<SongRec> songRecs = new ArrayList<SongRec>();
-        Iterator<Entity> iter = results.asIterator();
+        FetchOptions fetchOptions = FetchOptions.Builder.withLimit(NUM_RECS_TO_LOAD);
 
-        //get NUM_RECS_TO_LOAD more songs
-        for(int i = 0; i < numLoadedRecs + NUM_RECS_TO_LOAD; i++) {
-            if(!iter.hasNext()) {
-                break;
-            }
-
-            Entity entity = iter.next();
+        response.setCharacterEncoding("UTF-8");
+        response.setContentType("application/json;");
 
-            //only add songs that have not been loaded yet
-            if(i >= numLoadedRecs) {
-                String name = (String) entity.getProperty("name");
-                long numLikes = (long) entity.getProperty("numLikes");
-                long id = entity.getKey().getId();
+        if(getParameter(request, "num-loaded").isPresent()) {
+            //older pages ask for the number of songs loaded so far, skip those songs on the server instead of reading them here
+            fetchOptions.offset(getNumLoadedParam(request, response));
 
-                SongRec rec = new SongRec(name, numLikes, id);
-                songRecs.add(rec);
+            //older pages also expect an array of JSON strings
+            JsonStreamWriter writer = new JsonStreamWriter(response.getWriter(), true);
+            writer.beginArray();
+            for(Entity entity : results.asIterable(fetchOptions)) {
+                writer.element(createSongRec(entity));
+            }
+            writer.endArray().flush();
+            response.getWriter().println();
+        } else {
+            QueryResultList<Entity> page;
+            try {
+                //start where the previous page ended
+                getCursorParam(request).ifPresent(fetchOptions::startCursor);
+                //Datastore only checks that the cursor is valid when the query runs
+                page = results.asQueryResultList(fetchOptions);
+            } catch(IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+                return;
             }
 
-        }
+            //a page that is not full is the last page
+            String nextCursor = page.size() < NUM_RECS_TO_LOAD ? null : page.getCursor().toWebSafeString();
 
-        response.setCharacterEncoding("UTF-8");
-        response.setContentType("application/json;");
-        response.getWriter().println(convertListToJson(songRecs));
+            JsonStreamWriter writer = new JsonStreamWriter(response.getWriter(), JsonStreamWriter.isLegacyFormat(request));
+            writer.beginObject().name("recs").beginArray();
+            for(Entity entity : page) {
+                writer.element(createSongRec(entity));
+            }
+            writer.endArray().name("cursor").value(nextCursor).endObject().flush();
+        }
     }
 
     @Override
@@ -98,6 +111,27 @@ public class SongRecServlet extends HttpServlet {
 
     }
 
+    /**
+    * Creates a new SongRec object with the given entity.
+    * @return SongRec
+    */
+    private SongRec createSongRec(Entity entity) {
+        String name = (String) entity.getProperty("name");
+        long numLikes = (long) entity.getProperty("numLikes");
+        long id = entity.getKey().getId();
+
+        return new SongRec(name, numLikes, id);
+    }
+
+    /**
+    * Gets the cursor parameter, which is the cursor returned with the previous page of recommendations. Throws
+    * IllegalArgumentException if the cursor can not be decoded.
+    * @return Optional<Cursor>, empty if there is no cursor (the first page is loaded)
+    */
+    private Optional<Cursor> getCursorParam(HttpServletRequest request) {
+        return getParameter(request, "cursor").map(Cursor::fromWebSafeString);
+    }
+
     /**
     * Gets the num-loaded parameter to determine how many recommendations have been loaded already. 
     * @return int, if the user input was valid it returns the parameter, otherwise it returns 0
@@ -124,22 +158,6 @@ public class SongRecServlet extends HttpServlet {
     
     }
 
-    /**
-    * This method converts a list of songs to a JSON string.
-    * @return String, the list of songs as a JSON string
-    */
-    private String convertListToJson(ArrayList<SongRec> songRecs) {
-        ArrayList<String> jsonSongRecs = new ArrayList<String>();
-        Gson gson = new Gson();
-        //convert all SongRec objects to JSON
-        for(SongRec songRec : songRecs) {
-            jsonSongRecs.add(gson.toJson(songRec));
-        }
-
-        //convert list to JSON
-        return gson.toJson(jsonSongRecs);
-    }
-
     /**
    * @return an Optional of the request parameter
    */
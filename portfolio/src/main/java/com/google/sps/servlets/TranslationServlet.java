@@ -19,6 +19,8 @@ import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import com.google.sps.data.CacheStats;
+import com.google.sps.utilities.CachingTranslate;
 import com.google.sps.utilities.CommentTranslate;
 import com.google.sps.utilities.GoogleTranslate;
 import com.google.sps.utilities.FakeTranslate;
@@ -27,11 +29,24 @@ import com.google.sps.utilities.FakeTranslate;
 @WebServlet("/translate")
 public class TranslationServlet extends HttpServlet {
 
-    private static CommentTranslate translator;
+    private final int CACHE_MAX_ENTRIES = 10000;
+    private final long CACHE_MAX_BYTES = 16 * 1024 * 1024;
+    private final long CACHE_TTL_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+
+    private static CachingTranslate translator;
 
     public void init() {
         //change this to GoogleTranslate when deploying
-        translator = new FakeTranslate();
+        //the same comments are translated to the same languages by many visitors, so translations are cached and saved to Datastore
+        translator = new CachingTranslate(new FakeTranslate(), CACHE_MAX_ENTRIES, CACHE_MAX_BYTES, CACHE_TTL_MILLIS, true);
+    }
+
+    /**
+    * Gets the hit and miss counts of the translation cache.
+    * @return CacheStats, all zero if no translation has been requested on this instance yet
+    */
+    public static CacheStats getCacheStats() {
+        return translator == null ? new CacheStats(0, 0, 0) : translator.getStats();
     }
 
     @Override
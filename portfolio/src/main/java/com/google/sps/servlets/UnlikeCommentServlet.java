@@ -14,6 +14,8 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.ShardedLikeCounter;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -27,11 +29,6 @@ import com.google.appengine.api.datastore.Key;
 import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.Entity;
 import com.google.appengine.api.datastore.EntityNotFoundException;
-import com.google.appengine.api.datastore.PreparedQuery;
-import com.google.appengine.api.datastore.Query;
-import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
-import com.google.appengine.api.datastore.Query.CompositeFilter;
-import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Transaction;
 import com.google.appengine.api.datastore.TransactionOptions;
 
@@ -44,7 +41,8 @@ public class UnlikeCommentServlet extends HttpServlet {
         long commentId = Long.parseLong(request.getParameter("id"));
 
         DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
-        Transaction txn = datastore.beginTransaction();
+        //the Like entity and the counter shard are in different entity groups
+        Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
 
         try {
             
@@ -57,22 +55,27 @@ public class UnlikeCommentServlet extends HttpServlet {
 
             String userId = userService.getCurrentUser().getUserId();
 
-            //create a filter
-            //need to find entity that has userId of the current user and commentId of the comment the user unliked
-            CompositeFilter filter = CompositeFilterOperator.and(FilterOperator.EQUAL.of("userId", userId), FilterOperator.EQUAL.of("commentId", commentId));
-            Query query = new Query("Like").setFilter(filter);
+            try {
+                //the like is read in the transaction, so a like removed by another request is not taken off the counter twice
+                Key likeKey = ShardedLikeCounter.createLikeKey(userId, commentId);
+                datastore.get(txn, likeKey);
 
-            PreparedQuery pq = datastore.prepare(query);
-        
-            //there should only be one result
-            Entity result = pq.asSingleEntity();
-
-            //delete from datastore
-            datastore.delete(txn, result.getKey());
+                datastore.delete(txn, likeKey);
+                ShardedLikeCounter.removeFromCount(datastore, txn, commentId);
+            } catch (EntityNotFoundException e) {
+                //Likes from before the counter was sharded are keyed by user and were never counted, so they are deleted
+                //without taking them off the counter
+                Key legacyKey = KeyFactory.createKey("Like", userId);
+                Entity legacyLike = datastore.get(txn, legacyKey);
+                if(!Long.valueOf(commentId).equals(legacyLike.getProperty("commentId"))) {
+                    throw e;
+                }
+                datastore.delete(txn, legacyKey);
+            }
 
             txn.commit();
 
-        } catch (NullPointerException e) {
+        } catch (EntityNotFoundException e) {
             response.setContentType("text/html");
             response.getWriter().println("Entity not found.");
         } finally {
@@ -80,6 +83,9 @@ public class UnlikeCommentServlet extends HttpServlet {
             txn.rollback();
           }
         }
+
+        ShardedLikeCounter.scheduleTotalUpdate(commentId);
+        CommentCache.getInstance().invalidate();
     
     }
 
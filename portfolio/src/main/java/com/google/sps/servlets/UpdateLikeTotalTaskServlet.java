@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.ShardedLikeCounter;
+import java.io.IOException;
+import java.util.ConcurrentModificationException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import com.google.appengine.api.datastore.DatastoreFailureException;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+
+/**
+* Servlet that copies a comment's like total from its counter shards to the Comment entity, run by the task scheduled with
+* ShardedLikeCounter.scheduleTotalUpdate. If the write fails it responds with an error so the task queue retries the task.
+*/
+@WebServlet(ShardedLikeCounter.TOTAL_WORKER_URL)
+public class UpdateLikeTotalTaskServlet extends HttpServlet {
+
+    @Override
+    public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        //App Engine removes this header from requests that did not come from a task queue
+        if(request.getHeader("X-AppEngine-QueueName") == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        long commentId;
+        try {
+            commentId = Long.parseLong(request.getParameter("id"));
+        } catch (NumberFormatException e) {
+            //retrying would not help, so the task is not failed
+            System.out.println("Invalid value for id.");
+            return;
+        }
+
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+        try {
+            ShardedLikeCounter.storeTotalOnComment(datastore, commentId);
+        } catch (ConcurrentModificationException | DatastoreFailureException e) {
+            System.out.println("Failed to store like total: " + e.getMessage());
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            return;
+        }
+
+        //the "popular" order may have changed
+        CommentCache.getInstance().invalidate();
+    }
+
+}
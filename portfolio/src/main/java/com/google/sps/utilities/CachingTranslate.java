@@ -0,0 +1,219 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Text;
+import com.google.sps.data.CacheStats;
+import java.lang.String;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+* CommentTranslate that remembers translations made by another CommentTranslate. Translations are keyed by a hash of the
+* message and the target language code, kept in memory up to maxEntries translations and maxBytes of translated text (least
+* recently used first out), and expire after ttlMillis. If persist is true, translations are also saved as
+* "CachedTranslation" entities so they survive instance restarts. Expired entities are deleted by the cron request to
+* DELETE_EXPIRED_URL (see cron.xml). Language detection is not cached.
+*/
+public final class CachingTranslate implements CommentTranslate {
+
+    public static final String DELETE_EXPIRED_URL = "/tasks/delete-expired-translations";
+
+    private static final class CachedTranslation {
+        private final String translation;
+        private final long expiresAt;
+
+        private CachedTranslation(String translation, long expiresAt) {
+            this.translation = translation;
+            this.expiresAt = expiresAt;
+        }
+
+        private int getBytes() {
+            //Java strings use 2 bytes per char
+            return translation.length() * 2;
+        }
+    }
+
+    private final CommentTranslate translator;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final boolean persist;
+
+    //iterates from least to most recently used
+    private final LinkedHashMap<String, CachedTranslation> translations = new LinkedHashMap<String, CachedTranslation>(16, 0.75f, true);
+    private long totalBytes = 0;
+
+    private final AtomicLong localHits = new AtomicLong(0);
+    private final AtomicLong datastoreHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    public CachingTranslate(CommentTranslate translator, int maxEntries, long maxBytes, long ttlMillis, boolean persist) {
+        this.translator = translator;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.persist = persist;
+    }
+
+    @Override
+    public String translateMessage(String message, String languageCode) {
+        String key = createKey(message, languageCode);
+        String translation = getCached(key);
+
+        if(translation == null) {
+            translation = translator.translateMessage(message, languageCode);
+            putCached(key, translation);
+        }
+
+        return translation;
+    }
+
+    @Override
+    public String detectLanguage(String message) {
+        return translator.detectLanguage(message);
+    }
+
+    @Override
+    public List<String> detectLanguages(List<String> messages) {
+        return translator.detectLanguages(messages);
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(localHits.get(), datastoreHits.get(), misses.get());
+    }
+
+    /**
+    * Deletes up to limit "CachedTranslation" entities that expired before now.
+    * @return int, the number of entities deleted
+    */
+    public static int deleteExpired(DatastoreService datastore, long now, int limit) {
+        Query query = new Query("CachedTranslation").setKeysOnly()
+                                                    .setFilter(new FilterPredicate("expiresAt", FilterOperator.LESS_THAN, now));
+        List<Key> keys = datastore.prepare(query).asList(FetchOptions.Builder.withLimit(limit))
+                                  .stream().map(Entity::getKey).collect(Collectors.toList());
+
+        datastore.delete(keys);
+        return keys.size();
+    }
+
+    /**
+    * Gets a translation that has not expired from memory, or from Datastore if persist is true.
+    * @return String or null if the translation is not cached
+    */
+    private String getCached(String key) {
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            CachedTranslation cached = translations.get(key);
+
+            if(cached != null && cached.expiresAt > now) {
+                localHits.incrementAndGet();
+                return cached.translation;
+            }
+        }
+
+        if(persist) {
+            DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+            try {
+                Entity entity = datastore.get(createEntityKey(key));
+                long expiresAt = (long) entity.getProperty("expiresAt");
+
+                if(expiresAt > now) {
+                    String translation = ((Text) entity.getProperty("translation")).getValue();
+                    putLocal(key, new CachedTranslation(translation, expiresAt));
+                    datastoreHits.incrementAndGet();
+                    return translation;
+                }
+            } catch (EntityNotFoundException e) {
+                //not translated before
+            }
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private void putCached(String key, String translation) {
+        CachedTranslation cached = new CachedTranslation(translation, System.currentTimeMillis() + ttlMillis);
+        putLocal(key, cached);
+
+        if(persist) {
+            Entity entity = new Entity(createEntityKey(key));
+            //Text because translations can be longer than the 1500 bytes allowed in a String property
+            entity.setProperty("translation", new Text(translation));
+            entity.setProperty("expiresAt", cached.expiresAt);
+
+            DatastoreServiceFactory.getDatastoreService().put(entity);
+        }
+    }
+
+    private synchronized void putLocal(String key, CachedTranslation cached) {
+        CachedTranslation previous = translations.put(key, cached);
+        if(previous != null) {
+            totalBytes -= previous.getBytes();
+        }
+        totalBytes += cached.getBytes();
+
+        //remove least recently used translations until the cache is within its limits
+        Iterator<CachedTranslation> iter = translations.values().iterator();
+        while(iter.hasNext() && (translations.size() > maxEntries || totalBytes > maxBytes)) {
+            totalBytes -= iter.next().getBytes();
+            iter.remove();
+        }
+    }
+
+    private Key createEntityKey(String key) {
+        return KeyFactory.createKey("CachedTranslation", key);
+    }
+
+    /**
+    * Creates a key from the SHA-256 hash of the message and the language code, so long messages make short keys.
+    * @return String
+    */
+    private String createKey(String message, String languageCode) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(message.getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder key = new StringBuilder();
+            for(byte b : hash) {
+                key.append(String.format("%02x", b));
+            }
+
+            return key.append(":").append(languageCode).toString();
+        } catch (NoSuchAlgorithmException e) {
+            //every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,201 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheService.SetPolicy;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.sps.data.CacheStats;
+import com.google.sps.data.CachedCommentPage;
+import java.lang.String;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Caches pages of comments in memory on this instance and in Memcache when it is available. Every change to comments calls
+* invalidate(), which moves all instances to a new generation (stored in Memcache) so that pages cached before the change are
+* never returned again. A request reads the generation once with getGeneration() and passes it to get() and put(), so a page
+* loaded before an invalidate() is stored under the old generation and can not be returned after it. Pages kept in memory
+* expire after LOCAL_EXPIRATION_MILLIS, so an instance that can not reach Memcache, and so does not see other instances'
+* invalidations, stops returning old pages after that time.
+*/
+public final class CommentCache {
+
+    private static final CommentCache INSTANCE = new CommentCache();
+
+    private static final int MAX_LOCAL_ENTRIES = 100;
+    private static final long LOCAL_EXPIRATION_MILLIS = 30 * 1000;
+    private static final int MEMCACHE_EXPIRATION_SECONDS = 10 * 60;
+    private static final String GENERATION_KEY = "generation";
+    //generations that start with this are local to this instance and are not used in Memcache
+    private static final String LOCAL_GENERATION_PREFIX = "local-";
+
+    private final MemcacheService memcache = MemcacheServiceFactory.getMemcacheService("comments");
+
+    //least recently used pages are removed once there are more than MAX_LOCAL_ENTRIES
+    private final Map<String, LocalPage> localPages = new LinkedHashMap<String, LocalPage>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalPage> eldest) {
+            return size() > MAX_LOCAL_ENTRIES;
+        }
+    };
+
+    //used instead of the Memcache generation when Memcache is unavailable
+    private final AtomicLong localGeneration = new AtomicLong(0);
+
+    private final AtomicLong localHits = new AtomicLong(0);
+    private final AtomicLong memcacheHits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+
+    private CommentCache() {}
+
+    public static CommentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+    * Gets the current generation, read this once per request before get() and pass the same value to put().
+    * @return String
+    */
+    public String getGeneration() {
+        Long generation = getMemcacheGeneration();
+        return generation == null ? LOCAL_GENERATION_PREFIX + localGeneration.get() : generation.toString();
+    }
+
+    /**
+    * Gets the cached page of the generation for the sort type, page size and start cursor (null for the first page).
+    * @return CachedCommentPage or null if the page is not cached
+    */
+    public CachedCommentPage get(String generation, String sortType, int pageSize, String cursor) {
+        String key = createKey(generation, sortType, pageSize, cursor);
+
+        CachedCommentPage page = getLocal(key);
+        if(page != null) {
+            localHits.incrementAndGet();
+            return page;
+        }
+
+        if(isMemcacheGeneration(generation)) {
+            page = (CachedCommentPage) memcache.get(key);
+        }
+
+        if(page != null) {
+            memcacheHits.incrementAndGet();
+            putLocal(key, page);
+            return page;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+    * Caches the page under the generation it was loaded in, for the sort type, page size and start cursor (null for the first
+    * page).
+    */
+    public void put(String generation, String sortType, int pageSize, String cursor, CachedCommentPage page) {
+        String key = createKey(generation, sortType, pageSize, cursor);
+
+        putLocal(key, page);
+
+        if(isMemcacheGeneration(generation)) {
+            memcache.put(key, page, Expiration.byDeltaSeconds(MEMCACHE_EXPIRATION_SECONDS));
+        }
+    }
+
+    /**
+    * Makes all pages cached so far unreachable, call this whenever a comment or like is added or removed.
+    */
+    public void invalidate() {
+        localGeneration.incrementAndGet();
+
+        synchronized (localPages) {
+            localPages.clear();
+        }
+
+        //if the generation is not in memcache yet, the next getGeneration() starts a new one
+        memcache.increment(GENERATION_KEY, 1);
+    }
+
+    public CacheStats getStats() {
+        return new CacheStats(localHits.get(), memcacheHits.get(), misses.get());
+    }
+
+    /**
+    * Gets the page kept in memory for the key, removing it if it has expired.
+    * @return CachedCommentPage or null if there is none
+    */
+    private CachedCommentPage getLocal(String key) {
+        synchronized (localPages) {
+            LocalPage localPage = localPages.get(key);
+            if(localPage == null) {
+                return null;
+            }
+
+            if(System.currentTimeMillis() >= localPage.expirationMillis) {
+                localPages.remove(key);
+                return null;
+            }
+
+            return localPage.page;
+        }
+    }
+
+    private void putLocal(String key, CachedCommentPage page) {
+        LocalPage localPage = new LocalPage(page, System.currentTimeMillis() + LOCAL_EXPIRATION_MILLIS);
+        synchronized (localPages) {
+            localPages.put(key, localPage);
+        }
+    }
+
+    /**
+    * Gets the generation shared by all instances from Memcache. If the generation was evicted it is restarted at the current
+    * time, which is later than any generation used before, so old pages can not become reachable again.
+    * @return Long or null if Memcache is unavailable
+    */
+    private Long getMemcacheGeneration() {
+        Long generation = (Long) memcache.get(GENERATION_KEY);
+
+        if(generation == null) {
+            memcache.put(GENERATION_KEY, System.currentTimeMillis(), null, SetPolicy.ADD_ONLY_IF_NOT_PRESENT);
+            generation = (Long) memcache.get(GENERATION_KEY);
+        }
+
+        return generation;
+    }
+
+    //memcache is only used if the generation could be read from it
+    private static boolean isMemcacheGeneration(String generation) {
+        return !generation.startsWith(LOCAL_GENERATION_PREFIX);
+    }
+
+    private static String createKey(String generation, String sortType, int pageSize, String cursor) {
+        return generation + ":" + sortType + ":" + pageSize + ":" + (cursor == null ? "" : cursor);
+    }
+
+    /** A page kept in memory and the time it expires. */
+    private static final class LocalPage {
+        private final CachedCommentPage page;
+        private final long expirationMillis;
+
+        private LocalPage(CachedCommentPage page, long expirationMillis) {
+            this.page = page;
+            this.expirationMillis = expirationMillis;
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.google.sps.utilities;
 
 import java.lang.String;
+import java.util.List;
 
 public interface CommentTranslate {
 
@@ -8,4 +9,10 @@ public interface CommentTranslate {
 
     public String detectLanguage(String message);
 
+    /**
+    * Detects the language of all messages with as few requests as the service allows.
+    * @return List<String>, the language code of each message in the same order as messages
+    */
+    public List<String> detectLanguages(List<String> messages);
+
 }
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.EmailStats;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Counts contact emails queued and sent on this instance. Emails queued on one instance can be sent on another, so with the
+* task queue the send counts are for the emails this instance happened to send.
+*/
+public final class EmailMetrics {
+
+    private static final EmailMetrics INSTANCE = new EmailMetrics();
+
+    private final AtomicLong accepted = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong rejected = new AtomicLong(0);
+    private final AtomicLong sent = new AtomicLong(0);
+    private final AtomicLong sendAttempts = new AtomicLong(0);
+    private final AtomicLong failedAttempts = new AtomicLong(0);
+    private final AtomicLong totalSendNanos = new AtomicLong(0);
+
+    private EmailMetrics() {}
+
+    public static EmailMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    public void recordAccepted() {
+        accepted.incrementAndGet();
+    }
+
+    public void recordCoalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    public void recordRejected() {
+        rejected.incrementAndGet();
+    }
+
+    /**
+    * Records one attempt to send a digest of numEmails emails and how long it took. The emails are counted as sent if it
+    * succeeded, a failed attempt counts once whatever the size of the digest.
+    */
+    public void recordSend(int numEmails, long nanos, boolean succeeded) {
+        totalSendNanos.addAndGet(nanos);
+        sendAttempts.incrementAndGet();
+        if(succeeded) {
+            sent.addAndGet(numEmails);
+        } else {
+            failedAttempts.incrementAndGet();
+        }
+    }
+
+    public EmailStats getStats(long queueDepth) {
+        long attempts = sendAttempts.get();
+        double averageSendMillis = attempts == 0 ? 0 : totalSendNanos.get() / 1e6 / attempts;
+
+        return new EmailStats(queueDepth, accepted.get(), coalesced.get(), rejected.get(), sent.get(), failedAttempts.get(), averageSendMillis);
+    }
+
+}
@@ -12,31 +12,23 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 
-package com.google.sps;
+package com.google.sps.utilities;
 
-import java.util.ArrayList;
+import com.google.sps.data.ContactEmail;
 
-/** Stores a time range and a list of people available in that time range. */
-public final class Availability {
+/** Accepts contact emails to be sent after the request that submitted them has returned. */
+public interface EmailQueue {
 
-    private TimeRange time;
-    private int numAvailablePeople;
+    /**
+    * Queues the email to be sent. An email identical to one accepted recently is not sent again.
+    * @return boolean, false if the email could not be queued
+    */
+    public boolean enqueue(ContactEmail email);
 
-    public Availability(TimeRange time) {
-        this.time = time;
-        numAvailablePeople = 0;
-    }
-
-    public TimeRange getTime() {
-        return this.time;
-    }
-
-    public void incrementNumAvailablePeople() {
-        this.numAvailablePeople++;
-    }
-
-    public int getNumAvailablePeople() {
-        return this.numAvailablePeople;
-    }
+    /**
+    * Gets the number of emails waiting to be sent.
+    * @return long
+    */
+    public long getQueueDepth();
 
 }
@@ -0,0 +1,191 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.ContactEmail;
+import java.lang.String;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.mail.MessagingException;
+
+/**
+* EmailQueue that sends emails on a fixed number of threads in this process, for running outside of App Engine (which does
+* not allow threads to outlive a request). Emails accepted within digestWindowMillis of the first one are sent together as
+* one digest, at most capacity emails can wait for a digest to be sent. A failed digest is retried up to MAX_ATTEMPTS times,
+* waiting initialBackoffMillis before the first retry and twice as long before each next one. An email identical to one
+* accepted less than coalesceWindowMillis ago is not sent again. Emails are rejected once shutdown() has been called. The
+* transport is passed in so tests can use a fake one.
+*/
+public final class ExecutorEmailQueue implements EmailQueue {
+
+    static final int MAX_ATTEMPTS = 5;
+
+    private final MailTransport transport;
+    private final int capacity;
+    private final long digestWindowMillis;
+    private final long coalesceWindowMillis;
+    private final long initialBackoffMillis;
+
+    private final ThreadPoolExecutor senders;
+    //starts digests at the end of their window and retries failed ones
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final EmailMetrics metrics = EmailMetrics.getInstance();
+
+    //emails waiting for the current digest window to end, guarded by this
+    private List<ContactEmail> digest = new ArrayList<ContactEmail>();
+    //set by shutdown() so no digest is scheduled on the stopped scheduler, guarded by this
+    private boolean shutDown = false;
+    //coalescing key of each recently accepted email to the time it was accepted
+    private final ConcurrentHashMap<String, Long> recentEmails = new ConcurrentHashMap<String, Long>();
+    //emails accepted but not sent or given up on yet
+    private final AtomicLong pendingEmails = new AtomicLong(0);
+    //recent emails older than the coalescing window are removed at most once per window
+    private final AtomicLong nextCleanupMillis = new AtomicLong(0);
+
+    public ExecutorEmailQueue(MailTransport transport, int numThreads, int capacity, long digestWindowMillis,
+                              long coalesceWindowMillis, long initialBackoffMillis) {
+        this.transport = transport;
+        this.capacity = capacity;
+        this.digestWindowMillis = digestWindowMillis;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+        this.initialBackoffMillis = initialBackoffMillis;
+        //every pending email could be in its own digest, so the executor's queue never has to reject one
+        this.senders = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(capacity));
+    }
+
+    @Override
+    public boolean enqueue(ContactEmail email) {
+        long now = System.currentTimeMillis();
+        String key = email.getCoalescingKey();
+
+        Long acceptedAt = recentEmails.putIfAbsent(key, now);
+        //replace fails if another thread accepted the same email in the meantime
+        if(acceptedAt != null && (now - acceptedAt < coalesceWindowMillis || !recentEmails.replace(key, acceptedAt, now))) {
+            metrics.recordCoalesced();
+            return true;
+        }
+
+        synchronized (this) {
+            if(shutDown || pendingEmails.get() >= capacity) {
+                recentEmails.remove(key, now);
+                metrics.recordRejected();
+                return false;
+            }
+
+            pendingEmails.incrementAndGet();
+            digest.add(email);
+
+            //the first email of a window starts the timer that sends the digest
+            if(digest.size() == 1) {
+                scheduler.schedule(this::sendDigest, digestWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        metrics.recordAccepted();
+        removeOldRecentEmails(now);
+        return true;
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return pendingEmails.get();
+    }
+
+    /**
+    * Stops taking new emails and waits for the emails already queued to be sent. The current digest is sent right away and
+    * emails waiting to be retried are dropped.
+    */
+    public void shutdown() {
+        synchronized (this) {
+            shutDown = true;
+        }
+
+        scheduler.shutdownNow();
+        sendDigest();
+        senders.shutdown();
+
+        try {
+            senders.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+    * Ends the current digest window and hands its emails to a sender thread.
+    */
+    private void sendDigest() {
+        List<ContactEmail> emails;
+        synchronized (this) {
+            emails = digest;
+            digest = new ArrayList<ContactEmail>();
+        }
+
+        if(!emails.isEmpty()) {
+            execute(emails, 1);
+        }
+    }
+
+    private void send(List<ContactEmail> emails, int attempt) {
+        long start = System.nanoTime();
+
+        try {
+            transport.send(emails);
+            metrics.recordSend(emails.size(), System.nanoTime() - start, true);
+            pendingEmails.addAndGet(-emails.size());
+        } catch (MessagingException e) {
+            metrics.recordSend(emails.size(), System.nanoTime() - start, false);
+
+            if(attempt == MAX_ATTEMPTS) {
+                System.out.println("Failed to send " + emails.size() + " emails after " + attempt + " attempts: " + e.getMessage());
+                pendingEmails.addAndGet(-emails.size());
+                return;
+            }
+
+            long backoffMillis = initialBackoffMillis << (attempt - 1);
+            try {
+                scheduler.schedule(() -> execute(emails, attempt + 1), backoffMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException shutDown) {
+                pendingEmails.addAndGet(-emails.size());
+            }
+        }
+    }
+
+    private void execute(List<ContactEmail> emails, int attempt) {
+        try {
+            senders.execute(() -> send(emails, attempt));
+        } catch (RejectedExecutionException shutDown) {
+            System.out.println("Failed to send " + emails.size() + " emails: the queue is shut down.");
+            pendingEmails.addAndGet(-emails.size());
+        }
+    }
+
+    private void removeOldRecentEmails(long now) {
+        long cleanupMillis = nextCleanupMillis.get();
+        if(now >= cleanupMillis && nextCleanupMillis.compareAndSet(cleanupMillis, now + coalesceWindowMillis)) {
+            recentEmails.values().removeIf(acceptedAt -> now - acceptedAt >= coalesceWindowMillis);
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.google.sps.utilities;
 
 import java.lang.String;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random; 
 
 public final class FakeTranslate implements CommentTranslate {
@@ -19,4 +21,13 @@ public final class FakeTranslate implements CommentTranslate {
         Random rand = new Random();
         return codes[rand.nextInt(codes.length)];
     }
+
+    @Override
+    public List<String> detectLanguages(List<String> messages) {
+        List<String> codes = new ArrayList<String>();
+        for(String message : messages) {
+            codes.add(detectLanguage(message));
+        }
+        return codes;
+    }
 }
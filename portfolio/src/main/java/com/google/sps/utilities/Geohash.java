@@ -0,0 +1,80 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import java.lang.String;
+
+/**
+* Encodes latitude and longitude as geohashes. A geohash is a string where each character splits the cell of the previous
+* characters into 32 smaller cells, so all points in a cell share the cell's geohash as a prefix.
+*/
+public final class Geohash {
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private Geohash() {}
+
+    /**
+    * Gets the geohash of the cell with precision characters that contains the point.
+    * @return String
+    */
+    public static String encode(double lat, double lng, int precision) {
+        double minLat = -90;
+        double maxLat = 90;
+        double minLng = -180;
+        double maxLng = 180;
+
+        StringBuilder geohash = new StringBuilder(precision);
+        boolean isLngBit = true;
+        int bits = 0;
+        int value = 0;
+
+        while(geohash.length() < precision) {
+            //bits alternate between splitting the cell by longitude and by latitude, starting with longitude
+            if(isLngBit) {
+                double mid = (minLng + maxLng) / 2;
+                if(lng >= mid) {
+                    value = (value << 1) | 1;
+                    minLng = mid;
+                } else {
+                    value = value << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if(lat >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value = value << 1;
+                    maxLat = mid;
+                }
+            }
+
+            isLngBit = !isLngBit;
+            bits++;
+
+            //every 5 bits make one character
+            if(bits == 5) {
+                geohash.append(BASE32.charAt(value));
+                bits = 0;
+                value = 0;
+            }
+        }
+
+        return geohash.toString();
+    }
+
+}
@@ -5,12 +5,18 @@ import com.google.cloud.translate.TranslateOptions;
 import com.google.cloud.translate.Translation;
 import com.google.cloud.translate.Detection;
 import java.lang.String;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class GoogleTranslate implements CommentTranslate {
+
+    //the client is thread-safe, so one client (and its connections) is shared by every request
+    private static final Translate translate = TranslateOptions.getDefaultInstance().getService();
+    //the Translate API accepts at most 128 text segments per request
+    private static final int MAX_SEGMENTS_PER_REQUEST = 128;
     
     @Override
     public String translateMessage(String message, String languageCode) {
-        Translate translate = TranslateOptions.getDefaultInstance().getService();
         Translation translation = translate.translate(message, Translate.TranslateOption.targetLanguage(languageCode));
         String translatedMessage = translation.getTranslatedText();
         return translatedMessage;
@@ -18,8 +24,19 @@ public final class GoogleTranslate implements CommentTranslate {
 
     @Override
     public String detectLanguage(String message) {
-        Translate translate = TranslateOptions.getDefaultInstance().getService();
         Detection detection = translate.detect(message);
         return detection.getLanguage();
     }
+
+    @Override
+    public List<String> detectLanguages(List<String> messages) {
+        List<String> codes = new ArrayList<String>();
+        for(int i = 0; i < messages.size(); i += MAX_SEGMENTS_PER_REQUEST) {
+            List<String> chunk = messages.subList(i, Math.min(i + MAX_SEGMENTS_PER_REQUEST, messages.size()));
+            for(Detection detection : translate.detect(chunk)) {
+                codes.add(detection.getLanguage());
+            }
+        }
+        return codes;
+    }
 }
@@ -14,24 +14,21 @@
 
 package com.google.sps.utilities;
 
-import java.nio.charset.StandardCharsets;
 import java.lang.String;
-import java.util.HashMap;
 
 public class InputCleaner {
 
-    //HashMap that stores an ASCII value as a key and its HTML entity
-    private static HashMap<Integer, String> charToEntity;
+    //HTML entity for each ASCII character that needs to be replaced, indexed by the character's ASCII value (null if it can stay)
+    private static final String[] charToEntity = new String[128];
     static
     { 
-        charToEntity = new HashMap<Integer, String>(); 
         //common HTML character ASCII codes and their HTML entities
-        charToEntity.put(38, "&amp;"); // &
-        charToEntity.put(60, "&lt;"); // <
-        charToEntity.put(62, "&gt;"); // >
-        charToEntity.put(34, "&quot;"); // "
-        charToEntity.put(39, "&#x27;"); // '
-        charToEntity.put(47, "&#x2F;"); // /
+        charToEntity[38] = "&amp;"; // &
+        charToEntity[60] = "&lt;"; // <
+        charToEntity[62] = "&gt;"; // >
+        charToEntity[34] = "&quot;"; // "
+        charToEntity[39] = "&#x27;"; // '
+        charToEntity[47] = "&#x2F;"; // /
     } 
 
     /**
@@ -40,20 +37,36 @@ public class InputCleaner {
     */
     public static String clean(String str) {
 
-        char[] characters = str.toCharArray();
-        String[] cleanString = new String[str.length()];
+        int length = str.length();
+        int i = 0;
 
-        for(int i = 0; i < characters.length; i++) {
-            //if the character is in the HashMap, it is a common HTML character and needs to be replaced
-            char c = characters[i];
-            if(charToEntity.containsKey((int) c)) {
-                cleanString[i] = charToEntity.get((int) c);
+        //find the first character that needs to be replaced, most input has none and can be returned as it is
+        while(i < length && !needsReplacing(str.charAt(i))) {
+            i++;
+        }
+
+        if(i == length) {
+            return str;
+        }
+
+        //leave some room for the entities so the builder does not have to grow for a few replacements
+        StringBuilder cleanString = new StringBuilder(length + 16);
+        cleanString.append(str, 0, i);
+
+        for(; i < length; i++) {
+            char c = str.charAt(i);
+            if(needsReplacing(c)) {
+                cleanString.append(charToEntity[c]);
             } else {
-                cleanString[i] = Character.toString(c);
+                cleanString.append(c);
             }
         }
 
-        return String.join("", cleanString);
+        return cleanString.toString();
+    }
+
+    private static boolean needsReplacing(char c) {
+        return c < charToEntity.length && charToEntity[c] != null;
     }
 
-}
\ No newline at end of file
+}
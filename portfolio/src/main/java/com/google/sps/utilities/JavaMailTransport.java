@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.ContactEmail;
+import java.io.UnsupportedEncodingException;
+import java.lang.String;
+import java.util.List;
+import java.util.Properties;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+/**
+* Sends contact emails to the site owner with JavaMail, which App Engine delivers with its Mail API. The Session and the
+* addresses are created once and shared by all sends, they are only read while building messages.
+*/
+public final class JavaMailTransport implements MailTransport {
+
+    //appengine lets us use anything@[PROJECT_ID].appspotmail.com for email sending: https://cloud.google.com/appengine/docs/standard/java/mail
+    private static final InternetAddress FROM = createAddress("contact@kashisharora-step-2020.appspotmail.com", "Kashish's Portfolio Contact");
+    private static final InternetAddress TO = createAddress("kashisharora@google.com", "Kashish Arora");
+
+    private final Session session = Session.getInstance(new Properties(), null);
+
+    @Override
+    public void send(List<ContactEmail> emails) throws MessagingException {
+        Message msg = new MimeMessage(session);
+        msg.setFrom(FROM);
+        msg.addRecipient(Message.RecipientType.TO, TO);
+
+        if(emails.size() == 1) {
+            msg.setSubject(emails.get(0).getSubject());
+            msg.setText(emails.get(0).getMessage());
+        } else {
+            msg.setSubject(emails.size() + " messages from the contact form");
+            msg.setText(createDigestText(emails));
+        }
+
+        Transport.send(msg);
+    }
+
+    /**
+    * Lists each email's subject followed by its message.
+    * @return String
+    */
+    private String createDigestText(List<ContactEmail> emails) {
+        StringBuilder text = new StringBuilder();
+
+        for(ContactEmail email : emails) {
+            if(text.length() > 0) {
+                text.append("\n\n----------\n\n");
+            }
+            text.append(email.getSubject()).append("\n\n").append(email.getMessage());
+        }
+
+        return text.toString();
+    }
+
+    private static InternetAddress createAddress(String address, String name) {
+        try {
+            return new InternetAddress(address, name);
+        } catch (UnsupportedEncodingException e) {
+            //the names are constants in a supported encoding
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,217 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.data.Comment;
+import com.google.sps.data.LoginStatus;
+import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerCluster;
+import com.google.sps.data.SongRec;
+import java.io.IOException;
+
+/**
+* Holds the Gson used by all servlets. Gson is thread-safe, so one instance is shared instead of creating one (and its
+* adapter cache) per request. The data classes sent to the pages are written by hand so writing them does not use
+* reflection. Except for MarkerCluster, which sends its average position, the JSON is the same as Gson's reflective output,
+* so reading these classes is left to Gson's reflective adapters.
+*/
+public final class JsonSerialization {
+
+    public static final Gson GSON = new GsonBuilder()
+        .registerTypeAdapterFactory(new CommentWriter())
+        .registerTypeAdapterFactory(new SongRecWriter())
+        .registerTypeAdapterFactory(new MarkerWriter())
+        .registerTypeAdapterFactory(new MarkerClusterWriter())
+        .registerTypeAdapterFactory(new LoginStatusWriter())
+        .create();
+
+    private JsonSerialization() {}
+
+    /**
+    * Creates the adapter for one class, which writes values with write() and reads them with read(). By default values are
+    * read by the adapter Gson would have used without this factory.
+    */
+    private abstract static class WriterFactory<T> implements TypeAdapterFactory {
+        private final Class<T> type;
+
+        private WriterFactory(Class<T> type) {
+            this.type = type;
+        }
+
+        abstract void write(JsonWriter out, T value) throws IOException;
+
+        T read(JsonReader in, TypeAdapter<T> reflectiveAdapter) throws IOException {
+            return reflectiveAdapter.read(in);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <A> TypeAdapter<A> create(Gson gson, TypeToken<A> typeToken) {
+            if(typeToken.getRawType() != type) {
+                return null;
+            }
+
+            TypeAdapter<T> reflectiveAdapter = gson.getDelegateAdapter(this, TypeToken.get(type));
+            TypeAdapter<T> adapter = new TypeAdapter<T>() {
+                @Override
+                public void write(JsonWriter out, T value) throws IOException {
+                    if(value == null) {
+                        out.nullValue();
+                    } else {
+                        WriterFactory.this.write(out, value);
+                    }
+                }
+
+                @Override
+                public T read(JsonReader in) throws IOException {
+                    return WriterFactory.this.read(in, reflectiveAdapter);
+                }
+            };
+
+            return (TypeAdapter<A>) adapter;
+        }
+    }
+
+    private static final class CommentWriter extends WriterFactory<Comment> {
+        private CommentWriter() {
+            super(Comment.class);
+        }
+
+        @Override
+        void write(JsonWriter out, Comment comment) throws IOException {
+            out.beginObject();
+            writeString(out, "name", comment.getName());
+            writeString(out, "message", comment.getMessage());
+            writeString(out, "email", comment.getEmail());
+            out.name("timestamp").value(comment.getTimestamp());
+            out.name("numLikes").value(comment.getNumLikes());
+            out.name("isLiked").value(comment.isLiked());
+            writeString(out, "languageCode", comment.getLanguageCode());
+            out.name("isAuthor").value(comment.isAuthor());
+            out.name("id").value(comment.getId());
+            out.endObject();
+        }
+    }
+
+    private static final class SongRecWriter extends WriterFactory<SongRec> {
+        private SongRecWriter() {
+            super(SongRec.class);
+        }
+
+        @Override
+        void write(JsonWriter out, SongRec songRec) throws IOException {
+            out.beginObject();
+            writeString(out, "name", songRec.getName());
+            out.name("numLikes").value(songRec.getNumLikes());
+            out.name("id").value(songRec.getId());
+            out.endObject();
+        }
+    }
+
+    private static final class MarkerWriter extends WriterFactory<Marker> {
+        private MarkerWriter() {
+            super(Marker.class);
+        }
+
+        @Override
+        void write(JsonWriter out, Marker marker) throws IOException {
+            out.beginObject();
+            out.name("lat").value(marker.getLat());
+            out.name("lng").value(marker.getLng());
+            writeString(out, "description", marker.getDescription());
+            out.endObject();
+        }
+    }
+
+    /** Clusters are sent as their average position, which is not what their fields hold, so they are read by hand too. */
+    private static final class MarkerClusterWriter extends WriterFactory<MarkerCluster> {
+        private MarkerClusterWriter() {
+            super(MarkerCluster.class);
+        }
+
+        @Override
+        void write(JsonWriter out, MarkerCluster cluster) throws IOException {
+            out.beginObject();
+            out.name("lat").value(cluster.getLat());
+            out.name("lng").value(cluster.getLng());
+            out.name("count").value(cluster.getCount());
+            out.endObject();
+        }
+
+        @Override
+        MarkerCluster read(JsonReader in, TypeAdapter<MarkerCluster> reflectiveAdapter) throws IOException {
+            if(in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+
+            double lat = 0;
+            double lng = 0;
+            long count = 0;
+
+            in.beginObject();
+            while(in.hasNext()) {
+                switch(in.nextName()) {
+                    case "lat":
+                        lat = in.nextDouble();
+                        break;
+                    case "lng":
+                        lng = in.nextDouble();
+                        break;
+                    case "count":
+                        count = in.nextLong();
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            return new MarkerCluster(lat, lng, count);
+        }
+    }
+
+    private static final class LoginStatusWriter extends WriterFactory<LoginStatus> {
+        private LoginStatusWriter() {
+            super(LoginStatus.class);
+        }
+
+        @Override
+        void write(JsonWriter out, LoginStatus status) throws IOException {
+            out.beginObject();
+            out.name("loggedIn").value(status.isLoggedIn());
+            writeString(out, "url", status.getUrl());
+            out.endObject();
+        }
+    }
+
+    /**
+    * Writes a string property, leaving it out if it is null like Gson does by default.
+    */
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if(value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.String;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+* Writes a JSON response straight to the response writer, one element at a time, so responses never have to be built in
+* memory. In the legacy format each element is written as a JSON string containing the element's JSON (what the pages
+* parsed before), otherwise elements are written as JSON objects. Servlets choose the format with isLegacyFormat().
+*/
+public final class JsonStreamWriter {
+
+    private final JsonWriter jsonWriter;
+    private final Gson gson = JsonSerialization.GSON;
+    private final boolean legacyFormat;
+
+    public JsonStreamWriter(Writer out, boolean legacyFormat) {
+        this.jsonWriter = new JsonWriter(out);
+        //Gson.toJson escapes HTML characters, so the legacy format does too
+        this.jsonWriter.setHtmlSafe(legacyFormat);
+        this.legacyFormat = legacyFormat;
+    }
+
+    /**
+    * Checks the legacy-format parameter, which asks for each element to be sent as a JSON string instead of a JSON object.
+    * @return boolean
+    */
+    public static boolean isLegacyFormat(HttpServletRequest request) {
+        return Boolean.parseBoolean(request.getParameter("legacy-format"));
+    }
+
+    public JsonStreamWriter beginObject() throws IOException {
+        jsonWriter.beginObject();
+        return this;
+    }
+
+    public JsonStreamWriter endObject() throws IOException {
+        jsonWriter.endObject();
+        return this;
+    }
+
+    public JsonStreamWriter beginArray() throws IOException {
+        jsonWriter.beginArray();
+        return this;
+    }
+
+    public JsonStreamWriter endArray() throws IOException {
+        jsonWriter.endArray();
+        return this;
+    }
+
+    public JsonStreamWriter name(String name) throws IOException {
+        jsonWriter.name(name);
+        return this;
+    }
+
+    /**
+    * Writes a string value, or null if value is null.
+    */
+    public JsonStreamWriter value(String value) throws IOException {
+        if(value == null) {
+            jsonWriter.nullValue();
+        } else {
+            jsonWriter.value(value);
+        }
+        return this;
+    }
+
+    /**
+    * Writes one element of an array in the format chosen when this writer was created.
+    */
+    public JsonStreamWriter element(Object element) throws IOException {
+        if(legacyFormat) {
+            jsonWriter.value(gson.toJson(element));
+        } else {
+            gson.toJson(element, element.getClass(), jsonWriter);
+        }
+        return this;
+    }
+
+    /**
+    * Flushes everything written so far to the response.
+    */
+    public void flush() throws IOException {
+        jsonWriter.flush();
+    }
+
+}
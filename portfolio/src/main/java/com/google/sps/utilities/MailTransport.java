@@ -0,0 +1,31 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.ContactEmail;
+import java.util.List;
+import javax.mail.MessagingException;
+
+/** Delivers contact emails. */
+public interface MailTransport {
+
+    /**
+    * Sends the emails as one email, which is a digest of all of them if there is more than one. Throws if it could not be
+    * delivered.
+    */
+    public void send(List<ContactEmail> emails) throws MessagingException;
+
+}
@@ -0,0 +1,378 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import java.lang.String;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+* In-memory quadtree of marker positions. Markers are stored in parallel arrays and referred to by their index, so the tree
+* holds ints and doubles instead of Marker objects. Each node splits its cell into four quadrants once it holds more than
+* LEAF_CAPACITY markers. Markers can be added at any time, but not removed; reads can run at the same time as each other.
+*/
+public final class MarkerIndex {
+
+    private static final int LEAF_CAPACITY = 32;
+    //cells stop splitting at this depth, so many markers at the same position can not split forever
+    private static final int MAX_DEPTH = 24;
+    private static final int NO_CHILDREN = -1;
+
+    //marker i is at (lats[i], lngs[i])
+    private double[] lats = new double[64];
+    private double[] lngs = new double[64];
+    private String[] descriptions = new String[64];
+    private int size = 0;
+
+    //the quadrants of node n are nodes firstChild[n] to firstChild[n] + 3 (south west, south east, north west, north east),
+    //or firstChild[n] is NO_CHILDREN if n is a leaf
+    private int[] firstChild = new int[16];
+    //the markers in leaf n are items[n][0] to items[n][itemCounts[n] - 1]
+    private int[][] items = new int[16][];
+    private int[] itemCounts = new int[16];
+    private int nodeCount = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MarkerIndex() {
+        createNode();
+    }
+
+    /**
+    * Adds a marker.
+    * @return int, the index of the marker
+    */
+    public int add(double lat, double lng, String description) {
+        lock.writeLock().lock();
+        try {
+            if(size == lats.length) {
+                lats = Arrays.copyOf(lats, size * 2);
+                lngs = Arrays.copyOf(lngs, size * 2);
+                descriptions = Arrays.copyOf(descriptions, size * 2);
+            }
+
+            int marker = size++;
+            lats[marker] = lat;
+            lngs[marker] = lng;
+            descriptions[marker] = description;
+
+            insert(marker);
+            return marker;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getLat(int marker) {
+        lock.readLock().lock();
+        try {
+            return lats[marker];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public double getLng(int marker) {
+        lock.readLock().lock();
+        try {
+            return lngs[marker];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String getDescription(int marker) {
+        lock.readLock().lock();
+        try {
+            return descriptions[marker];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+    * Gets the markers inside the bounding box. If west is greater than east, the box crosses the antimeridian.
+    * @return int[], indexes of the markers
+    */
+    public int[] search(double south, double west, double north, double east) {
+        lock.readLock().lock();
+        try {
+            IntList found = new IntList();
+
+            if(west <= east) {
+                search(0, -90, -180, 90, 180, south, west, north, east, found);
+            } else {
+                search(0, -90, -180, 90, 180, south, west, north, 180, found);
+                search(0, -90, -180, 90, 180, south, -180, north, east, found);
+            }
+
+            return found.toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+    * Gets the k markers closest to the point, closest first. Distance is measured on a flat map around the point, which is
+    * close enough for ordering nearby markers.
+    * @return int[], indexes of the markers
+    */
+    public int[] nearest(double lat, double lng, int k) {
+        lock.readLock().lock();
+        try {
+            NearestMarkers nearest = new NearestMarkers(Math.min(k, size), Math.cos(Math.toRadians(lat)));
+            if(nearest.capacity > 0) {
+                nearest(0, -90, -180, 90, 180, lat, lng, nearest);
+            }
+            return Arrays.copyOf(nearest.markers, nearest.count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insert(int marker) {
+        double lat = lats[marker];
+        double lng = lngs[marker];
+
+        int node = 0;
+        int depth = 0;
+        double south = -90;
+        double west = -180;
+        double north = 90;
+        double east = 180;
+
+        //walk down to the leaf whose cell contains the marker
+        while(firstChild[node] != NO_CHILDREN) {
+            double midLat = (south + north) / 2;
+            double midLng = (west + east) / 2;
+            int quadrant = getQuadrant(lat, lng, midLat, midLng);
+
+            if(quadrant >= 2) {
+                south = midLat;
+            } else {
+                north = midLat;
+            }
+            if(quadrant % 2 == 1) {
+                west = midLng;
+            } else {
+                east = midLng;
+            }
+
+            node = firstChild[node] + quadrant;
+            depth++;
+        }
+
+        addItem(node, marker);
+
+        if(itemCounts[node] > LEAF_CAPACITY && depth < MAX_DEPTH) {
+            split(node, (south + north) / 2, (west + east) / 2);
+        }
+    }
+
+    /**
+    * Moves the markers of a leaf into four new leaves, one per quadrant.
+    */
+    private void split(int node, double midLat, double midLng) {
+        int first = createNode();
+        createNode();
+        createNode();
+        createNode();
+
+        for(int i = 0; i < itemCounts[node]; i++) {
+            int marker = items[node][i];
+            addItem(first + getQuadrant(lats[marker], lngs[marker], midLat, midLng), marker);
+        }
+
+        firstChild[node] = first;
+        items[node] = null;
+        itemCounts[node] = 0;
+    }
+
+    private void search(int node, double cellSouth, double cellWest, double cellNorth, double cellEast,
+                        double south, double west, double north, double east, IntList found) {
+        if(cellSouth > north || cellNorth < south || cellWest > east || cellEast < west) {
+            return;
+        }
+
+        if(firstChild[node] == NO_CHILDREN) {
+            for(int i = 0; i < itemCounts[node]; i++) {
+                int marker = items[node][i];
+                if(lats[marker] >= south && lats[marker] <= north && lngs[marker] >= west && lngs[marker] <= east) {
+                    found.add(marker);
+                }
+            }
+            return;
+        }
+
+        double midLat = (cellSouth + cellNorth) / 2;
+        double midLng = (cellWest + cellEast) / 2;
+        int first = firstChild[node];
+
+        search(first, cellSouth, cellWest, midLat, midLng, south, west, north, east, found);
+        search(first + 1, cellSouth, midLng, midLat, cellEast, south, west, north, east, found);
+        search(first + 2, midLat, cellWest, cellNorth, midLng, south, west, north, east, found);
+        search(first + 3, midLat, midLng, cellNorth, cellEast, south, west, north, east, found);
+    }
+
+    private void nearest(int node, double cellSouth, double cellWest, double cellNorth, double cellEast,
+                         double lat, double lng, NearestMarkers nearest) {
+        //no marker in this cell can be closer than the k found so far
+        if(nearest.isFull() && getDistanceToCell(lat, lng, cellSouth, cellWest, cellNorth, cellEast, nearest.lngScale) >= nearest.getFarthestDistance()) {
+            return;
+        }
+
+        if(firstChild[node] == NO_CHILDREN) {
+            for(int i = 0; i < itemCounts[node]; i++) {
+                int marker = items[node][i];
+                nearest.offer(marker, getDistance(lat, lng, lats[marker], lngs[marker], nearest.lngScale));
+            }
+            return;
+        }
+
+        double midLat = (cellSouth + cellNorth) / 2;
+        double midLng = (cellWest + cellEast) / 2;
+        int first = firstChild[node];
+
+        //visit the quadrant containing the point first, so the cells after it can usually be skipped
+        int closest = getQuadrant(lat, lng, midLat, midLng);
+        for(int i = 0; i < 4; i++) {
+            int quadrant = closest ^ i;
+            double south = quadrant >= 2 ? midLat : cellSouth;
+            double north = quadrant >= 2 ? cellNorth : midLat;
+            double west = quadrant % 2 == 1 ? midLng : cellWest;
+            double east = quadrant % 2 == 1 ? cellEast : midLng;
+
+            nearest(first + quadrant, south, west, north, east, lat, lng, nearest);
+        }
+    }
+
+    private int getQuadrant(double lat, double lng, double midLat, double midLng) {
+        return (lat >= midLat ? 2 : 0) + (lng >= midLng ? 1 : 0);
+    }
+
+    /**
+    * Gets the squared flat map distance between two points, going across the antimeridian if that is shorter.
+    * @return double
+    */
+    private static double getDistance(double lat1, double lng1, double lat2, double lng2, double lngScale) {
+        double latDistance = lat1 - lat2;
+        double lngDistance = getLngDistance(lng1, lng2) * lngScale;
+        return latDistance * latDistance + lngDistance * lngDistance;
+    }
+
+    /**
+    * Gets the squared flat map distance from a point to the closest point of a cell.
+    * @return double
+    */
+    private static double getDistanceToCell(double lat, double lng, double south, double west, double north, double east, double lngScale) {
+        double latDistance = lat < south ? south - lat : (lat > north ? lat - north : 0);
+        double lngDistance = lng >= west && lng <= east ? 0 : Math.min(getLngDistance(lng, west), getLngDistance(lng, east)) * lngScale;
+        return latDistance * latDistance + lngDistance * lngDistance;
+    }
+
+    private static double getLngDistance(double lng1, double lng2) {
+        double distance = Math.abs(lng1 - lng2);
+        return Math.min(distance, 360 - distance);
+    }
+
+    private int createNode() {
+        if(nodeCount == firstChild.length) {
+            firstChild = Arrays.copyOf(firstChild, nodeCount * 2);
+            items = Arrays.copyOf(items, nodeCount * 2);
+            itemCounts = Arrays.copyOf(itemCounts, nodeCount * 2);
+        }
+
+        firstChild[nodeCount] = NO_CHILDREN;
+        items[nodeCount] = new int[4];
+        itemCounts[nodeCount] = 0;
+        return nodeCount++;
+    }
+
+    private void addItem(int node, int marker) {
+        if(itemCounts[node] == items[node].length) {
+            items[node] = Arrays.copyOf(items[node], itemCounts[node] * 2);
+        }
+        items[node][itemCounts[node]++] = marker;
+    }
+
+    /** Growable array of ints. */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int count = 0;
+
+        private void add(int value) {
+            if(count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, count);
+        }
+    }
+
+    /** The closest markers found so far, sorted from closest to farthest. */
+    private static final class NearestMarkers {
+        private final int capacity;
+        private final double lngScale;
+        private final int[] markers;
+        private final double[] distances;
+        private int count = 0;
+
+        private NearestMarkers(int capacity, double lngScale) {
+            this.capacity = capacity;
+            this.lngScale = lngScale;
+            this.markers = new int[capacity];
+            this.distances = new double[capacity];
+        }
+
+        private boolean isFull() {
+            return count == capacity;
+        }
+
+        private double getFarthestDistance() {
+            return distances[count - 1];
+        }
+
+        private void offer(int marker, double distance) {
+            if(isFull() && distance >= getFarthestDistance()) {
+                return;
+            }
+
+            //shift farther markers back to make room, dropping the farthest if there are already k
+            int i = isFull() ? count - 1 : count++;
+            while(i > 0 && distances[i - 1] > distance) {
+                markers[i] = markers[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+
+            markers[i] = marker;
+            distances[i] = distance;
+        }
+    }
+
+}
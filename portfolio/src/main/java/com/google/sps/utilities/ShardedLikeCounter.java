@@ -0,0 +1,203 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.taskqueue.InternalFailureException;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.api.taskqueue.TransientFailureException;
+import java.lang.String;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+* Stores the number of likes of each comment in NUM_SHARDS "LikeCounterShard" entities. Writes pick a random shard so that
+* likes on a popular comment do not all contend for the same entity, and reads sum the shards. Only Likes with keys from
+* createLikeKey are counted, older Likes are counted when BackfillLikesServlet moves them to those keys.
+*/
+public final class ShardedLikeCounter {
+
+    public static final int NUM_SHARDS = 10;
+    public static final String TOTAL_WORKER_URL = "/tasks/update-like-total";
+
+    private static final long TOTAL_WINDOW_MILLIS = 10 * 1000;
+
+    private ShardedLikeCounter() {}
+
+    /**
+    * Adds delta to a randomly picked shard of the comment's counter as part of the transaction txn.
+    */
+    public static void addToCount(DatastoreService datastore, Transaction txn, long commentId, long delta) {
+        Key shardKey = createShardKey(commentId, ThreadLocalRandom.current().nextInt(NUM_SHARDS));
+
+        Entity shard;
+        try {
+            shard = datastore.get(txn, shardKey);
+        } catch (EntityNotFoundException e) {
+            //the first write to this shard creates it
+            shard = new Entity(shardKey);
+            shard.setProperty("commentId", commentId);
+            shard.setProperty("count", 0L);
+        }
+
+        shard.setProperty("count", (long) shard.getProperty("count") + delta);
+        datastore.put(txn, shard);
+    }
+
+    /**
+    * Sums the shards of the comment's counter.
+    * @return long
+    */
+    public static long getCount(DatastoreService datastore, long commentId) {
+        List<Long> commentIds = new ArrayList<Long>();
+        commentIds.add(commentId);
+
+        return getCounts(datastore, commentIds).getOrDefault(commentId, 0L);
+    }
+
+    /**
+    * Sums the shards of the counters for all of the given comments with one batch get.
+    * @return Map<Long, Long>, comment id to number of likes (comments without likes are not in the map)
+    */
+    public static Map<Long, Long> getCounts(DatastoreService datastore, List<Long> commentIds) {
+        Map<Long, Long> counts = new HashMap<Long, Long>();
+
+        for(Entity shard : datastore.get(getAllShardKeys(commentIds)).values()) {
+            counts.merge((long) shard.getProperty("commentId"), (long) shard.getProperty("count"), Long::sum);
+        }
+
+        return counts;
+    }
+
+    /**
+    * Takes one like off the comment's counter as part of the transaction txn, from a randomly picked shard that has likes. The
+    * shards are read in the transaction, so the counter never goes below zero.
+    * @return boolean, false if the counter had no likes to take off
+    */
+    public static boolean removeFromCount(DatastoreService datastore, Transaction txn, long commentId) {
+        List<Long> commentIds = new ArrayList<Long>();
+        commentIds.add(commentId);
+
+        List<Entity> shardsWithLikes = new ArrayList<Entity>();
+        for(Entity shard : datastore.get(txn, getAllShardKeys(commentIds)).values()) {
+            if((long) shard.getProperty("count") > 0) {
+                shardsWithLikes.add(shard);
+            }
+        }
+
+        if(shardsWithLikes.isEmpty()) {
+            return false;
+        }
+
+        Entity shard = shardsWithLikes.get(ThreadLocalRandom.current().nextInt(shardsWithLikes.size()));
+        shard.setProperty("count", (long) shard.getProperty("count") - 1);
+        datastore.put(txn, shard);
+        return true;
+    }
+
+    /**
+    * Schedules copying the comment's total to its Comment entity, see storeTotalOnComment. The task runs at the end of a
+    * TOTAL_WINDOW_MILLIS window and is named after the comment and the window, so all the likes and unlikes of a comment in
+    * one window lead to one write of the comment instead of one each.
+    */
+    public static void scheduleTotalUpdate(long commentId) {
+        long window = System.currentTimeMillis() / TOTAL_WINDOW_MILLIS;
+
+        TaskOptions task = TaskOptions.Builder.withUrl(TOTAL_WORKER_URL)
+                                              .taskName("like-total-" + commentId + "-" + window)
+                                              .param("id", Long.toString(commentId))
+                                              .etaMillis((window + 1) * TOTAL_WINDOW_MILLIS);
+
+        try {
+            QueueFactory.getDefaultQueue().add(task);
+        } catch (TaskAlreadyExistsException e) {
+            //the update for this window is already scheduled
+        } catch (TransientFailureException | InternalFailureException e) {
+            //the total is copied with the next like or unlike of the comment
+            System.out.println("Could not schedule like total: " + e.getMessage());
+        }
+    }
+
+    /**
+    * Copies the current total of the comment's counter to the "numLikes" property of the Comment entity, which is what the
+    * "popular" sort orders by. This is run by a task queue task off the request path, see scheduleTotalUpdate, and the comment
+    * is read and written in a transaction so the write does not overwrite other changes to it. The stored total can lag
+    * behind the shards until the task runs.
+    * Throws ConcurrentModificationException if the comment changed during the transaction, the task is then retried.
+    */
+    public static void storeTotalOnComment(DatastoreService datastore, long commentId) {
+        long total = getCount(datastore, commentId);
+        Transaction txn = datastore.beginTransaction();
+
+        try {
+            Entity commentEntity = datastore.get(txn, KeyFactory.createKey("Comment", commentId));
+            commentEntity.setProperty("numLikes", total);
+            datastore.put(txn, commentEntity);
+            txn.commit();
+        } catch (EntityNotFoundException e) {
+            System.out.println("Entity not found.");
+        } finally {
+            if (txn.isActive()) {
+                txn.rollback();
+            }
+        }
+    }
+
+    /**
+    * Deletes all shards of the comment's counter.
+    */
+    public static void deleteCounter(DatastoreService datastore, long commentId) {
+        List<Long> commentIds = new ArrayList<Long>();
+        commentIds.add(commentId);
+
+        datastore.delete(getAllShardKeys(commentIds));
+    }
+
+    /**
+    * Creates the key of the Like entity for a user and a comment. There is one Like per user and comment, so the key can be
+    * built without a query.
+    * @return Key
+    */
+    public static Key createLikeKey(String userId, long commentId) {
+        return KeyFactory.createKey("Like", userId + "-" + commentId);
+    }
+
+    private static List<Key> getAllShardKeys(List<Long> commentIds) {
+        List<Key> keys = new ArrayList<Key>();
+
+        for(long commentId : commentIds) {
+            for(int i = 0; i < NUM_SHARDS; i++) {
+                keys.add(createShardKey(commentId, i));
+            }
+        }
+
+        return keys;
+    }
+
+    private static Key createShardKey(long commentId, int shardIndex) {
+        return KeyFactory.createKey("LikeCounterShard", commentId + "-" + shardIndex);
+    }
+
+}
@@ -0,0 +1,165 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.taskqueue.InternalFailureException;
+import com.google.appengine.api.taskqueue.Queue;
+import com.google.appengine.api.taskqueue.QueueFactory;
+import com.google.appengine.api.taskqueue.RetryOptions;
+import com.google.appengine.api.taskqueue.TaskAlreadyExistsException;
+import com.google.appengine.api.taskqueue.TaskHandle;
+import com.google.appengine.api.taskqueue.TaskOptions;
+import com.google.appengine.api.taskqueue.TransientFailureException;
+import com.google.sps.data.ContactEmail;
+import java.io.UnsupportedEncodingException;
+import java.lang.String;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.mail.MessagingException;
+
+/**
+* EmailQueue that stores emails as tasks in the EMAIL_QUEUE pull queue (see queue.xml). For each digest window that has
+* emails, a push task on the default queue calls WORKER_URL at the end of the window, which leases the emails and sends them
+* as digests with sendDigests(). If that fails, the push task is retried with backoff and the emails are leased again once
+* their lease runs out. Email tasks are named after the email and the coalescing window it was submitted in, and the task
+* queue rejects a second task with the same name, so duplicate submissions within a window are sent once.
+*/
+public final class TaskQueueEmailQueue implements EmailQueue {
+
+    public static final String WORKER_URL = "/tasks/send-email";
+    public static final String EMAIL_QUEUE = "contact-emails";
+
+    private static final long LEASE_SECONDS = 60;
+    //most emails sent in one digest, the worker keeps sending digests until the queue is empty
+    private static final int MAX_DIGEST_SIZE = 100;
+
+    private static final RetryOptions RETRY_OPTIONS = RetryOptions.Builder.withTaskRetryLimit(5)
+                                                                          .minBackoffSeconds(LEASE_SECONDS)
+                                                                          .maxBackoffSeconds(10 * 60)
+                                                                          .maxDoublings(5);
+
+    private final Queue emailQueue = QueueFactory.getQueue(EMAIL_QUEUE);
+    private final Queue digestQueue = QueueFactory.getDefaultQueue();
+    private final EmailMetrics metrics = EmailMetrics.getInstance();
+    private final long digestWindowMillis;
+    private final long coalesceWindowMillis;
+
+    public TaskQueueEmailQueue(long digestWindowMillis, long coalesceWindowMillis) {
+        this.digestWindowMillis = digestWindowMillis;
+        this.coalesceWindowMillis = coalesceWindowMillis;
+    }
+
+    @Override
+    public boolean enqueue(ContactEmail email) {
+        long now = System.currentTimeMillis();
+        String taskName = "contact-" + email.getCoalescingKey() + "-" + (now / coalesceWindowMillis);
+
+        TaskOptions task = TaskOptions.Builder.withMethod(TaskOptions.Method.PULL)
+                                              .taskName(taskName)
+                                              .param("email", email.getFrom())
+                                              .param("name", email.getName())
+                                              .param("message", email.getMessage());
+
+        try {
+            emailQueue.add(task);
+            metrics.recordAccepted();
+        } catch (TaskAlreadyExistsException e) {
+            metrics.recordCoalesced();
+            return true;
+        } catch (TransientFailureException | InternalFailureException e) {
+            System.out.println("Could not queue email: " + e.getMessage());
+            metrics.recordRejected();
+            return false;
+        }
+
+        scheduleDigest(now);
+        return true;
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return emailQueue.fetchStatistics().getNumTasks();
+    }
+
+    /**
+    * Sends the queued emails in digests of up to MAX_DIGEST_SIZE emails, deleting the emails of each digest once it is sent.
+    * Throws if a digest could not be sent, its emails stay queued.
+    */
+    public static void sendDigests(MailTransport transport) throws MessagingException {
+        Queue emailQueue = QueueFactory.getQueue(EMAIL_QUEUE);
+        EmailMetrics metrics = EmailMetrics.getInstance();
+
+        List<TaskHandle> tasks = emailQueue.leaseTasks(LEASE_SECONDS, TimeUnit.SECONDS, MAX_DIGEST_SIZE);
+
+        while(!tasks.isEmpty()) {
+            List<ContactEmail> emails = new ArrayList<ContactEmail>();
+            for(TaskHandle task : tasks) {
+                emails.add(createEmail(task));
+            }
+
+            long start = System.nanoTime();
+            try {
+                transport.send(emails);
+                metrics.recordSend(emails.size(), System.nanoTime() - start, true);
+            } catch (MessagingException e) {
+                metrics.recordSend(emails.size(), System.nanoTime() - start, false);
+                throw e;
+            }
+
+            emailQueue.deleteTask(tasks);
+            tasks = emailQueue.leaseTasks(LEASE_SECONDS, TimeUnit.SECONDS, MAX_DIGEST_SIZE);
+        }
+    }
+
+    /**
+    * Adds the push task that sends the digest of the window now is in, unless another email in the window already added it.
+    */
+    private void scheduleDigest(long now) {
+        long window = now / digestWindowMillis;
+
+        TaskOptions task = TaskOptions.Builder.withUrl(WORKER_URL)
+                                              .taskName("digest-" + window)
+                                              .etaMillis((window + 1) * digestWindowMillis)
+                                              .retryOptions(RETRY_OPTIONS);
+
+        try {
+            digestQueue.add(task);
+        } catch (TaskAlreadyExistsException e) {
+            //the digest of this window is already scheduled
+        } catch (TransientFailureException | InternalFailureException e) {
+            //the email is still queued and is sent with the next window's digest
+            System.out.println("Could not schedule digest: " + e.getMessage());
+        }
+    }
+
+    private static ContactEmail createEmail(TaskHandle task) {
+        try {
+            Map<String, String> params = new HashMap<String, String>();
+            for(Map.Entry<String, String> param : task.extractParams()) {
+                params.put(param.getKey(), param.getValue());
+            }
+
+            return new ContactEmail(params.get("email"), params.get("name"), params.get("message"));
+        } catch (UnsupportedEncodingException e) {
+            //params are always encoded in UTF-8
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
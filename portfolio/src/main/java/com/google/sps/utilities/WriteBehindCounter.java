@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreFailureException;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+import java.lang.String;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+* Adds to a long property of Datastore entities without a read-modify-write per request. Deltas are summed in memory per
+* entity and flushed with transactional batch puts at most once every flushIntervalMillis, so concurrent increments are never
+* lost and a popular entity is written at most once per flush. App Engine only allows Datastore calls from request threads,
+* so the flush is done by the first add() after the interval has passed, and by the cron request to FLUSH_URL (see cron.xml)
+* so the last deltas are written even if no more adds come. Deltas that have not been flushed yet are lost if the instance
+* dies without shutdown() being called.
+*/
+public final class WriteBehindCounter {
+
+    public static final String FLUSH_URL = "/tasks/flush-counters";
+
+    //a cross-group transaction can include at most 25 entity groups
+    private static final int MAX_ENTITIES_PER_TRANSACTION = 25;
+    private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+    //the counters of this instance, flushed together by flushAll()
+    private static final Set<WriteBehindCounter> counters = ConcurrentHashMap.newKeySet();
+
+    private final String kind;
+    private final String property;
+    private final long flushIntervalMillis;
+    private final ConcurrentHashMap<Long, Long> pendingDeltas = new ConcurrentHashMap<Long, Long>();
+    private final AtomicLong lastFlushMillis = new AtomicLong(0);
+
+    public WriteBehindCounter(String kind, String property, long flushIntervalMillis) {
+        this.kind = kind;
+        this.property = property;
+        this.flushIntervalMillis = flushIntervalMillis;
+        counters.add(this);
+    }
+
+    /**
+    * Flushes every counter of this instance.
+    */
+    public static void flushAll() {
+        for(WriteBehindCounter counter : counters) {
+            counter.flush();
+        }
+    }
+
+    /**
+    * Adds delta to the property of the entity with id. The change is written to Datastore on the next flush.
+    */
+    public void add(long id, long delta) {
+        //merge and remove are atomic, so an increment is either in the map or taken by a flush, never lost in between
+        pendingDeltas.merge(id, delta, Long::sum);
+
+        long now = System.currentTimeMillis();
+        long lastFlush = lastFlushMillis.get();
+        //only the request that moves lastFlushMillis forward does the flush, the others return right away
+        if(now - lastFlush >= flushIntervalMillis && lastFlushMillis.compareAndSet(lastFlush, now)) {
+            flush();
+        }
+    }
+
+    /**
+    * Writes all pending deltas to Datastore. Deltas that could not be written are kept for the next flush.
+    */
+    public synchronized void flush() {
+        List<Long> ids = new ArrayList<Long>(pendingDeltas.keySet());
+
+        for(int i = 0; i < ids.size(); i += MAX_ENTITIES_PER_TRANSACTION) {
+            List<Long> batch = ids.subList(i, Math.min(i + MAX_ENTITIES_PER_TRANSACTION, ids.size()));
+
+            //take the deltas out of the map so increments that arrive during the write are kept for the next flush
+            Map<Long, Long> deltas = new HashMap<Long, Long>();
+            for(long id : batch) {
+                Long delta = pendingDeltas.remove(id);
+                if(delta != null && delta != 0) {
+                    deltas.put(id, delta);
+                }
+            }
+
+            boolean written = false;
+            try {
+                written = deltas.isEmpty() || writeDeltas(deltas);
+            } finally {
+                if(!written) {
+                    //put the deltas back so they are retried on the next flush
+                    deltas.forEach((id, delta) -> pendingDeltas.merge(id, delta, Long::sum));
+                }
+            }
+        }
+    }
+
+    /**
+    * Flushes the pending deltas, call this before the instance shuts down.
+    */
+    public void shutdown() {
+        counters.remove(this);
+        flush();
+    }
+
+    /**
+    * Adds the deltas to their entities in one transaction, retrying if another write to the same entities got there first.
+    * Entities that no longer exist are skipped.
+    * @return boolean, true if the deltas were written
+    */
+    private boolean writeDeltas(Map<Long, Long> deltas) {
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+        List<Key> keys = new ArrayList<Key>();
+        for(long id : deltas.keySet()) {
+            keys.add(KeyFactory.createKey(kind, id));
+        }
+
+        for(int attempt = 0; attempt < MAX_TRANSACTION_ATTEMPTS; attempt++) {
+            try {
+                addInTransaction(datastore, keys, deltas);
+                return true;
+            } catch (ConcurrentModificationException e) {
+                System.out.println("Concurrent modification of " + kind + " entities, retrying.");
+            } catch (DatastoreFailureException e) {
+                System.out.println("Could not write " + kind + " entities, retrying: " + e.getMessage());
+            }
+        }
+
+        return false;
+    }
+
+    private void addInTransaction(DatastoreService datastore, List<Key> keys, Map<Long, Long> deltas) {
+        Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+
+        try {
+            Map<Key, Entity> entities = datastore.get(txn, keys);
+
+            for(Entity entity : entities.values()) {
+                long value = (long) entity.getProperty(property);
+                entity.setProperty(property, value + deltas.get(entity.getKey().getId()));
+            }
+
+            datastore.put(txn, entities.values());
+            txn.commit();
+
+        } finally {
+            if (txn.isActive()) {
+                txn.rollback();
+            }
+        }
+    }
+
+}
@@ -61,18 +61,22 @@ function createButtonWithLink(buttonText, url) {
     return button;
 }
 
+//Cursor for the next page of comments, null if there are no more comments to load.
+var nextCommentsCursor = null;
+
 //Requests comments from DataServlet and adds it to the page.
 function loadComments() {
-    fetch("/data?max-comments="+getSelection("max-comments")+"&sort-type="+getSelection("sort-type")).then(response => response.json()).then((comments) => {
+    fetch(getCommentsUrl()).then(response => response.json()).then((page) => {
         var commentContainer = document.getElementById("comment-container");
         commentContainer.innerHTML = "";
+        updateLoadMoreCommentsButton(page.cursor);
         //if there are no comments
-        if(comments.length == 0 ) {
+        if(page.comments.length == 0 ) {
             commentContainer.innerText = "Nothing to see here.";
             return;
         }
         //create a div element for each of the commments in the comments array
-        var commentElems = comments.map(createCommentElem);
+        var commentElems = page.comments.map(createCommentElem);
         //append each commentElem to commentContainer
         commentElems.forEach(function(elem) {
             commentContainer.appendChild(elem);
@@ -80,6 +84,33 @@ function loadComments() {
     });
 }
 
+//Requests the next page of comments from DataServlet and adds them after the comments already on the page.
+function loadMoreComments() {
+    if(nextCommentsCursor === null) {
+        return;
+    }
+
+    fetch(getCommentsUrl() + "&cursor=" + encodeURIComponent(nextCommentsCursor)).then(response => response.json()).then((page) => {
+        var commentContainer = document.getElementById("comment-container");
+        updateLoadMoreCommentsButton(page.cursor);
+        //append each commentElem to commentContainer
+        page.comments.map(createCommentElem).forEach(function(elem) {
+            commentContainer.appendChild(elem);
+        });
+    });
+}
+
+//Returns the url for DataServlet with the selected number of comments and sort type.
+function getCommentsUrl() {
+    return "/data?max-comments="+getSelection("max-comments")+"&sort-type="+getSelection("sort-type");
+}
+
+//Saves the cursor for the next page and only shows the load more button if there is a next page.
+function updateLoadMoreCommentsButton(cursor) {
+    nextCommentsCursor = cursor === undefined ? null : cursor;
+    document.getElementById("load-more-comments-button").style.display = nextCommentsCursor === null ? "none" : "block";
+}
+
 //Returns the selected option in select form with id parameter.
 function getSelection(id) {
     var select = document.getElementById(id);
@@ -88,9 +119,7 @@ function getSelection(id) {
 
 // Creates a div element for a comment with a name, date, and message
 // @return div element
-function createCommentElem(comment) {
-    //convert string to JSON
-    var jsonComment = JSON.parse(comment);
+function createCommentElem(jsonComment) {
 
     var commentElem = document.createElement("div");
     var name = document.createElement("h6");
@@ -24,7 +24,8 @@ function initMap() {
         zoom: 3
     });
 
-    loadMarkers();
+    //load the markers in view whenever the user stops moving or zooming the map
+    map.addListener("idle", loadMarkers);
 
     map.addListener("click", (event) => {
         createNewMarkerByUser(event.latLng.lat(), event.latLng.lng());
@@ -110,14 +111,42 @@ function createInputForm(lat, lng) {
     return container;
 }
 
-//Loads all stored markers from the server and creates markers to display on the map.
+//Markers and clusters currently on the map, removed when the markers for a new view are loaded.
+var loadedMarkers = [];
+
+//Loads the stored markers in the visible part of the map from the server and creates markers to display on the map. When
+//the map is zoomed out, markers that are close together come back as one cluster.
 function loadMarkers() {
-    fetch("/markers").then(response => response.json()).then((markers) => {
-        markers.forEach((marker) => {
-            //convert data to JSON
-            createMarker(JSON.parse(marker));
+    var bounds = map.getBounds();
+    const params = new URLSearchParams();
+    params.append("south", bounds.getSouthWest().lat());
+    params.append("west", bounds.getSouthWest().lng());
+    params.append("north", bounds.getNorthEast().lat());
+    params.append("east", bounds.getNorthEast().lng());
+    params.append("zoom", map.getZoom());
+
+    fetch("/markers?" + params.toString()).then(response => response.json()).then((markers) => {
+        loadedMarkers.forEach((marker) => {
+            marker.setMap(null);
         });
+
+        loadedMarkers = markers.map((marker) => {
+            return marker.count === undefined ? createMarker(marker) : createCluster(marker);
+        });
+    });
+}
+
+//Creates a marker labeled with the number of markers in the cluster. Clicking it zooms in on the cluster.
+function createCluster(clusterData) {
+    var position = {lat: clusterData.lat, lng: clusterData.lng};
+    var marker = new google.maps.Marker({position: position, map: map, label: clusterData.count.toString()});
+
+    marker.addListener("click", () => {
+        map.setZoom(map.getZoom() + 2);
+        map.setCenter(position);
     });
+
+    return marker;
 }
 
 //Creates a marker with an info window displaying the user's description.
@@ -141,4 +170,5 @@ function createMarker(markerData) {
 
         openWindow = infoWindow;
     });
+    return marker;
 }
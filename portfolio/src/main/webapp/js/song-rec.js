@@ -12,10 +12,15 @@
 // See the License for the specific language governing permissions and
 // limitations under the License.
 
+//Cursor for the next page of song recommendations, null if there are no more recommendations to load.
+var nextRecsCursor = null;
+
 //Requests song recommendations from SongRecServlet and adds it to the page.
 function loadSongRecs() {
-    fetch("/recs?num-loaded=0").then(response => response.json()).then((recs) => {
+    fetch("/recs").then(response => response.json()).then((page) => {
     var recContainer = document.getElementById("rec-container");
+    var recs = page.recs;
+    nextRecsCursor = page.cursor === undefined ? null : page.cursor;
 
     if(recs.length == 0) {
         recContainer.innerText = "None yet!";
@@ -37,9 +42,15 @@ function loadSongRecs() {
 //Fetches more song recommendations from the server and adds them to the page. If there are no more song recommendations, 
 //it adds a message to the page indicating that there are no more.
 function loadMoreSongRecs() {
-    fetch("/recs?num-loaded="+getNumLoadedRecs()).then(response => response.json()).then((recs) => {
+    //the last page was not full, so there is nothing after it
+    var url = nextRecsCursor === null ? null : "/recs?cursor=" + encodeURIComponent(nextRecsCursor);
+    var fetchPage = url === null ? Promise.resolve({recs: [], cursor: null}) : fetch(url).then(response => response.json());
+
+    fetchPage.then((page) => {
 
         var recContainer = document.getElementById("rec-container");
+        var recs = page.recs;
+        nextRecsCursor = page.cursor === undefined ? null : page.cursor;
 
         //if there are no more recommendations
         if(recs.length === 0){
@@ -62,17 +73,9 @@ function loadMoreSongRecs() {
     });
 }
 
-//Gets the number of song recommendations already on the page.
-function getNumLoadedRecs() {
-    var recContainer = document.getElementById("rec-container");
-    return recContainer.childElementCount;
-}
-
 //Creates a div element for a song recommendation JSON object. Each div contains an element for the name of the song
 //recommendation and a plus one button to like a song recommendation.
-function createRecElem(rec) {
-
-    var jsonRec = JSON.parse(rec);
+function createRecElem(jsonRec) {
 
     var container = document.createElement("div");
     var recName = document.createElement("p");
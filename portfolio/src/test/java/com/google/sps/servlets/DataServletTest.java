@@ -0,0 +1,212 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalMemcacheServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.gson.Gson;
+import com.google.sps.data.Comment;
+import com.google.sps.data.Comment.CommentBuilder;
+import com.google.sps.utilities.CommentCache;
+import com.google.sps.utilities.DatastoreCallCounter;
+import com.google.sps.utilities.ShardedLikeCounter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public final class DataServletTest {
+
+    private static final String USER_ID = "user";
+    private static final String OTHER_USER_ID = "other";
+
+    private static final int NUM_COMMENTS = 50;
+
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig(),
+                                                                             new LocalMemcacheServiceTestConfig(),
+                                                                             new LocalUserServiceTestConfig())
+        .setEnvIsLoggedIn(true)
+        .setEnvEmail("user@example.com")
+        .setEnvAuthDomain("example.com")
+        .setEnvAttributes(createUserIdAttributes(USER_ID));
+    private DatastoreService datastore;
+    private DatastoreCallCounter counter;
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+        datastore = DatastoreServiceFactory.getDatastoreService();
+        counter = DatastoreCallCounter.install();
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void likesOfAPageAreReadWithOneBatchGet() {
+        //the user liked comments 1 and 3 on the page and 100 other comments that are not on it
+        putLike(USER_ID, 1);
+        putLike(USER_ID, 3);
+        putLike(OTHER_USER_ID, 2);
+        for(long commentId = 100; commentId < 200; commentId++) {
+            putLike(USER_ID, commentId);
+        }
+        counter.reset();
+
+        Set<Long> actual = DataServlet.getCommentsLikedByUser(datastore, USER_ID, Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        Assert.assertEquals(new HashSet<Long>(Arrays.asList(1L, 3L)), actual);
+        Assert.assertEquals(1, counter.getCount("Get"));
+        Assert.assertEquals(1, counter.getTotal());
+    }
+
+    @Test
+    public void pageReadsDoNotGrowWithThePageSize() throws Exception {
+        //every comment is liked by the user, so each one has a Like and a like counter shard to read
+        for(long commentId = 1; commentId <= NUM_COMMENTS; commentId++) {
+            putComment(commentId);
+            putLike(USER_ID, commentId);
+            Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+            ShardedLikeCounter.addToCount(datastore, txn, commentId, 1);
+            txn.commit();
+        }
+
+        Map<Integer, List<Integer>> callsByPageSize = new HashMap<Integer, List<Integer>>();
+        for(int pageSize : new int[]{1, 10, NUM_COMMENTS}) {
+            //load the page from Datastore instead of the comment cache
+            CommentCache.getInstance().invalidate();
+            counter.reset();
+
+            String json = getPage(pageSize);
+
+            Assert.assertEquals(pageSize, json.split("\"isLiked\":true").length - 1);
+            callsByPageSize.put(pageSize, Arrays.asList(counter.getCount("Get"), counter.getCount("RunQuery")));
+        }
+
+        Assert.assertEquals(callsByPageSize.get(1), callsByPageSize.get(10));
+        Assert.assertEquals(callsByPageSize.get(1), callsByPageSize.get(NUM_COMMENTS));
+    }
+
+    @Test
+    public void invalidCursorIsABadRequest() throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getParameter("cursor")).thenReturn("not a cursor");
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        StringWriter out = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(out));
+
+        new DataServlet().doGet(request, response);
+
+        Mockito.verify(response).sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+        Assert.assertEquals("", out.toString());
+    }
+
+    @Test
+    public void emptyPageMakesNoCalls() {
+        counter.reset();
+
+        Set<Long> actual = DataServlet.getCommentsLikedByUser(datastore, USER_ID, new ArrayList<Long>());
+
+        Assert.assertTrue(actual.isEmpty());
+        Assert.assertEquals(0, counter.getTotal());
+    }
+
+    @Test
+    public void legacyFormatIsTheOldArrayOfJsonStrings() throws Exception {
+        List<Comment> comments = Arrays.asList(
+            new CommentBuilder().setMessage("<b>Hi</b> & \"bye\" = 'é'").setTimestamp(1).setId(1).build(),
+            new CommentBuilder().setName("Name").setMessage("Hello").setEmail("name@example.com").setTimestamp(2).setNumLikes(3).setIsLiked(true).setId(2).build());
+
+        StringWriter actual = new StringWriter();
+        DataServlet.writePage(new PrintWriter(actual), comments, "cursor", true);
+
+        //how the response was written before it was streamed
+        ArrayList<String> jsonComments = new ArrayList<String>();
+        Gson gson = new Gson();
+        for(Comment c : comments) {
+            jsonComments.add(gson.toJson(c));
+        }
+        StringWriter expected = new StringWriter();
+        new PrintWriter(expected).println(gson.toJson(jsonComments));
+
+        Assert.assertEquals(expected.toString(), actual.toString());
+    }
+
+    /**
+    * Runs doGet for the first page of newest comments as the logged in user.
+    * @return String, the response
+    */
+    private String getPage(int pageSize) throws Exception {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getParameter("max-comments")).thenReturn(Integer.toString(pageSize));
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        StringWriter out = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(out));
+
+        DataServlet servlet = new DataServlet();
+        servlet.init();
+        servlet.doGet(request, response);
+
+        return out.toString();
+    }
+
+    private void putComment(long commentId) {
+        Entity comment = new Entity("Comment", commentId);
+        comment.setProperty("message", "Comment " + commentId);
+        comment.setProperty("timestamp", commentId);
+        comment.setProperty("userId", OTHER_USER_ID);
+        comment.setProperty("languageCode", "en");
+        comment.setProperty("numLikes", 1L);
+        datastore.put(comment);
+    }
+
+    private void putLike(String userId, long commentId) {
+        Entity like = new Entity(ShardedLikeCounter.createLikeKey(userId, commentId));
+        like.setProperty("commentId", commentId);
+        like.setProperty("userId", userId);
+        datastore.put(like);
+    }
+
+    private static Map<String, Object> createUserIdAttributes(String userId) {
+        Map<String, Object> attributes = new HashMap<String, Object>();
+        attributes.put("com.google.appengine.api.users.UserService.user_id_key", userId);
+        return attributes;
+    }
+
+}
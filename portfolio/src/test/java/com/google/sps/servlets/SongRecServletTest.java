@@ -0,0 +1,150 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+@RunWith(JUnit4.class)
+public final class SongRecServletTest {
+
+    //not a multiple of the page size, and with ties in numLikes
+    private static final int NUM_RECS = 12;
+
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+    private final SongRecServlet servlet = new SongRecServlet();
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+
+        for(int i = 0; i < NUM_RECS; i++) {
+            Entity songRec = new Entity("SongRec");
+            songRec.setProperty("name", "Song " + i);
+            songRec.setProperty("numLikes", (long) (i / 3));
+            datastore.put(songRec);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void cursorsPageThroughEveryRecOnce() throws Exception {
+        List<Long> ids = new ArrayList<Long>();
+        List<Long> numLikes = new ArrayList<Long>();
+
+        String cursor = null;
+        do {
+            Map<String, String> params = new HashMap<String, String>();
+            if(cursor != null) {
+                params.put("cursor", cursor);
+            }
+            JsonObject page = JsonParser.parseString(get(params)).getAsJsonObject();
+
+            for(JsonElement rec : page.getAsJsonArray("recs")) {
+                ids.add(rec.getAsJsonObject().get("id").getAsLong());
+                numLikes.add(rec.getAsJsonObject().get("numLikes").getAsLong());
+            }
+            cursor = page.get("cursor").isJsonNull() ? null : page.get("cursor").getAsString();
+        } while(cursor != null);
+
+        Assert.assertEquals(NUM_RECS, ids.size());
+        Assert.assertEquals(NUM_RECS, new HashSet<Long>(ids).size());
+        for(int i = 1; i < numLikes.size(); i++) {
+            Assert.assertTrue(numLikes.get(i - 1) >= numLikes.get(i));
+        }
+    }
+
+    @Test
+    public void numLoadedPagesThroughEveryRecOnce() throws Exception {
+        List<Long> ids = new ArrayList<Long>();
+
+        for(int numLoaded = 0; numLoaded < NUM_RECS; numLoaded += 5) {
+            Map<String, String> params = new HashMap<String, String>();
+            params.put("num-loaded", Integer.toString(numLoaded));
+            JsonArray page = JsonParser.parseString(get(params)).getAsJsonArray();
+
+            //the old format is an array of JSON strings
+            for(JsonElement rec : page) {
+                ids.add(JsonParser.parseString(rec.getAsString()).getAsJsonObject().get("id").getAsLong());
+            }
+        }
+
+        Assert.assertEquals(NUM_RECS, ids.size());
+        Assert.assertEquals(NUM_RECS, new HashSet<Long>(ids).size());
+    }
+
+    @Test
+    public void invalidCursorIsABadRequest() throws Exception {
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("cursor", "not a cursor");
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        StringWriter out = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(out));
+
+        servlet.doGet(createRequest(params), response);
+
+        Mockito.verify(response).sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for cursor.");
+        Assert.assertEquals("", out.toString());
+    }
+
+    /**
+    * Runs doGet with the parameters.
+    * @return String, the response
+    */
+    private String get(Map<String, String> params) throws Exception {
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+        StringWriter out = new StringWriter();
+        Mockito.when(response.getWriter()).thenReturn(new PrintWriter(out));
+
+        servlet.doGet(createRequest(params), response);
+
+        return out.toString();
+    }
+
+    private static HttpServletRequest createRequest(Map<String, String> params) {
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getParameter(Mockito.anyString())).thenAnswer(invocation -> params.get(invocation.getArgument(0)));
+        return request;
+    }
+
+}
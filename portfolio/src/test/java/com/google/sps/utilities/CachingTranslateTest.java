@@ -0,0 +1,119 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CachingTranslateTest {
+
+    private static final long TTL_MILLIS = 60 * 1000;
+
+    private final CountingTranslate fakeTranslate = new CountingTranslate();
+    private final CachingTranslate translator = new CachingTranslate(fakeTranslate, 100, 1024 * 1024, TTL_MILLIS, false);
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void eachMessageIsTranslatedOnce() {
+        for(String message : Arrays.asList("Hello", "Hello", "Bye", "Bye", "Thanks", "Bye", "Thanks")) {
+            translator.translateMessage(message, "fi");
+        }
+
+        Assert.assertEquals(Arrays.asList("Hello", "Bye", "Thanks"), fakeTranslate.translatedMessages);
+    }
+
+    @Test
+    public void eachLanguageIsTranslatedSeparately() {
+        translator.translateMessage("Hello", "fi");
+        translator.translateMessage("Hello", "fr");
+
+        Assert.assertEquals(Arrays.asList("Hello", "Hello"), fakeTranslate.translatedMessages);
+    }
+
+    @Test
+    public void onlyExpiredTranslationsAreDeleted() {
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        new CachingTranslate(fakeTranslate, 100, 1024 * 1024, -1, true).translateMessage("Hello", "fi");
+        new CachingTranslate(fakeTranslate, 100, 1024 * 1024, TTL_MILLIS, true).translateMessage("Bye", "fi");
+
+        Assert.assertEquals(1, CachingTranslate.deleteExpired(datastore, System.currentTimeMillis(), 100));
+        Assert.assertEquals(0, CachingTranslate.deleteExpired(datastore, System.currentTimeMillis(), 100));
+        Assert.assertEquals(1, countCachedTranslations(datastore));
+    }
+
+    @Test
+    public void deletesAtMostTheLimit() {
+        DatastoreService datastore = DatastoreServiceFactory.getDatastoreService();
+        CachingTranslate expiring = new CachingTranslate(fakeTranslate, 100, 1024 * 1024, -1, true);
+        for(String message : Arrays.asList("Hello", "Bye", "Thanks")) {
+            expiring.translateMessage(message, "fi");
+        }
+
+        Assert.assertEquals(2, CachingTranslate.deleteExpired(datastore, System.currentTimeMillis(), 2));
+        Assert.assertEquals(1, CachingTranslate.deleteExpired(datastore, System.currentTimeMillis(), 2));
+        Assert.assertEquals(0, countCachedTranslations(datastore));
+    }
+
+    private static int countCachedTranslations(DatastoreService datastore) {
+        return datastore.prepare(new Query("CachedTranslation")).countEntities(FetchOptions.Builder.withDefaults());
+    }
+
+    /** FakeTranslate that records every message sent to it. */
+    private static final class CountingTranslate implements CommentTranslate {
+        private final FakeTranslate translator = new FakeTranslate();
+        private final List<String> translatedMessages = new ArrayList<String>();
+
+        @Override
+        public String translateMessage(String message, String languageCode) {
+            translatedMessages.add(message);
+            return translator.translateMessage(message, languageCode);
+        }
+
+        @Override
+        public String detectLanguage(String message) {
+            return translator.detectLanguage(message);
+        }
+
+        @Override
+        public List<String> detectLanguages(List<String> messages) {
+            return translator.detectLanguages(messages);
+        }
+    }
+
+}
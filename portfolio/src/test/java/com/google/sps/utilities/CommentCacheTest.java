@@ -0,0 +1,70 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.tools.development.testing.LocalMemcacheServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.sps.data.CachedCommentPage;
+import com.google.sps.data.Comment;
+import java.util.ArrayList;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CommentCacheTest {
+
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalMemcacheServiceTestConfig());
+    private final CommentCache cache = CommentCache.getInstance();
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+        cache.invalidate();
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void pageIsReturnedForItsGeneration() {
+        String generation = cache.getGeneration();
+        CachedCommentPage page = createPage();
+        cache.put(generation, "newest", 10, null, page);
+
+        Assert.assertSame(page, cache.get(cache.getGeneration(), "newest", 10, null));
+    }
+
+    @Test
+    public void pageLoadedBeforeInvalidateIsNotReturned() {
+        //a request reads the generation and loads the page while another request changes a comment
+        String generation = cache.getGeneration();
+        Assert.assertNull(cache.get(generation, "newest", 10, null));
+        cache.invalidate();
+        cache.put(generation, "newest", 10, null, createPage());
+
+        Assert.assertNull(cache.get(cache.getGeneration(), "newest", 10, null));
+    }
+
+    private static CachedCommentPage createPage() {
+        return new CachedCommentPage(new ArrayList<Comment>(), new ArrayList<String>(), null);
+    }
+
+}
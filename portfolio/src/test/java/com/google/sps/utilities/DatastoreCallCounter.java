@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreFailureException;
+import com.google.apphosting.api.ApiProxy;
+import com.google.apphosting.api.ApiProxy.ApiConfig;
+import com.google.apphosting.api.ApiProxy.Environment;
+import com.google.apphosting.api.ApiProxy.LogRecord;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+* Counts the Datastore calls made through the App Engine API proxy, by method name (Get, RunQuery, Put...), so tests can check
+* how many round trips a request makes. While failing is set, every Datastore call fails as if Datastore were down.
+*/
+public final class DatastoreCallCounter implements ApiProxy.Delegate<Environment> {
+
+    private final ApiProxy.Delegate<Environment> delegate;
+    private final Map<String, Integer> calls = new ConcurrentHashMap<String, Integer>();
+    private volatile boolean failing = false;
+
+    private DatastoreCallCounter(ApiProxy.Delegate<Environment> delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+    * Puts a counter in front of the current delegate, which is set up by LocalServiceTestHelper.
+    * @return DatastoreCallCounter
+    */
+    @SuppressWarnings("unchecked")
+    public static DatastoreCallCounter install() {
+        DatastoreCallCounter counter = new DatastoreCallCounter(ApiProxy.getDelegate());
+        ApiProxy.setDelegate(counter);
+        return counter;
+    }
+
+    /**
+    * Gets the number of calls to the Datastore method since the counter was installed or reset.
+    * @return int
+    */
+    public int getCount(String methodName) {
+        return calls.getOrDefault(methodName, 0);
+    }
+
+    /**
+    * Gets the number of calls to any Datastore method since the counter was installed or reset.
+    * @return int
+    */
+    public int getTotal() {
+        return calls.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public void reset() {
+        calls.clear();
+    }
+
+    /**
+    * Makes every Datastore call fail with a DatastoreFailureException until it is set back to false.
+    */
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public byte[] makeSyncCall(Environment environment, String packageName, String methodName, byte[] request) {
+        count(packageName, methodName);
+        return delegate.makeSyncCall(environment, packageName, methodName, request);
+    }
+
+    @Override
+    public Future<byte[]> makeAsyncCall(Environment environment, String packageName, String methodName, byte[] request,
+                                        ApiConfig apiConfig) {
+        count(packageName, methodName);
+        return delegate.makeAsyncCall(environment, packageName, methodName, request, apiConfig);
+    }
+
+    @Override
+    public void log(Environment environment, LogRecord record) {
+        delegate.log(environment, record);
+    }
+
+    @Override
+    public void flushLogs(Environment environment) {
+        delegate.flushLogs(environment);
+    }
+
+    @Override
+    public List<Thread> getRequestThreads(Environment environment) {
+        return delegate.getRequestThreads(environment);
+    }
+
+    private void count(String packageName, String methodName) {
+        if(packageName.equals("datastore_v3")) {
+            calls.merge(methodName, 1, Integer::sum);
+
+            if(failing) {
+                throw new DatastoreFailureException("Datastore is down.");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.EmailStats;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class EmailMetricsTest {
+
+    private final EmailMetrics metrics = EmailMetrics.getInstance();
+
+    @Test
+    public void digestsCountEachEmail() {
+        EmailStats before = metrics.getStats(0);
+
+        metrics.recordSend(3, 0, true);
+        metrics.recordSend(2, 0, false);
+        metrics.recordSend(1, 0, true);
+
+        EmailStats after = metrics.getStats(0);
+        Assert.assertEquals(4, after.getSent() - before.getSent());
+        Assert.assertEquals(1, after.getFailedAttempts() - before.getFailedAttempts());
+    }
+
+}
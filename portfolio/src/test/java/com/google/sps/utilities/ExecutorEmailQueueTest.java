@@ -0,0 +1,273 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.sps.data.ContactEmail;
+import com.google.sps.data.EmailStats;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.mail.MessagingException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ExecutorEmailQueueTest {
+
+    private static final long DIGEST_WINDOW_MILLIS = 50;
+    private static final long BACKOFF_MILLIS = 10;
+    //longer than any test, so the first digest of a test is never sent before shutdown()
+    private static final long NEVER_MILLIS = 60 * 1000;
+
+    private static final ContactEmail HELLO = new ContactEmail("a@example.com", "A", "Hello");
+    private static final ContactEmail BYE = new ContactEmail("b@example.com", "B", "Bye");
+    private static final ContactEmail THANKS = new ContactEmail("c@example.com", "C", "Thanks");
+
+    private final EmailMetrics metrics = EmailMetrics.getInstance();
+    private final List<ExecutorEmailQueue> queues = new ArrayList<ExecutorEmailQueue>();
+
+    @After
+    public void tearDown() {
+        for(ExecutorEmailQueue queue : queues) {
+            queue.shutdown();
+        }
+    }
+
+    @Test
+    public void emailsInOneWindowAreSentAsOneDigest() throws InterruptedException {
+        FakeTransport transport = new FakeTransport(0, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 10, DIGEST_WINDOW_MILLIS, NEVER_MILLIS);
+
+        Assert.assertTrue(queue.enqueue(HELLO));
+        Assert.assertTrue(queue.enqueue(BYE));
+        Assert.assertTrue(queue.enqueue(THANKS));
+        Assert.assertEquals(3, queue.getQueueDepth());
+        awaitEmpty(queue);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList(HELLO, BYE, THANKS)), transport.getDigests());
+    }
+
+    @Test
+    public void duplicatesAreCoalescedOnlyWithinTheWindow() throws InterruptedException {
+        long coalesceWindowMillis = 200;
+        FakeTransport transport = new FakeTransport(0, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 10, DIGEST_WINDOW_MILLIS, coalesceWindowMillis);
+        EmailStats before = metrics.getStats(0);
+
+        Assert.assertTrue(queue.enqueue(HELLO));
+        Assert.assertTrue(queue.enqueue(new ContactEmail("a@example.com", "A", "Hello")));
+        Assert.assertEquals(1, queue.getQueueDepth());
+        awaitEmpty(queue);
+
+        Thread.sleep(coalesceWindowMillis);
+        Assert.assertTrue(queue.enqueue(HELLO));
+        awaitEmpty(queue);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList(HELLO), Arrays.asList(HELLO)), transport.getDigests());
+        Assert.assertEquals(1, metrics.getStats(0).getCoalesced() - before.getCoalesced());
+    }
+
+    @Test
+    public void emailsOverCapacityAreRejected() throws InterruptedException {
+        FakeTransport transport = new FakeTransport(0, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 2, NEVER_MILLIS, NEVER_MILLIS);
+        EmailStats before = metrics.getStats(0);
+
+        Assert.assertTrue(queue.enqueue(HELLO));
+        Assert.assertTrue(queue.enqueue(BYE));
+        Assert.assertFalse(queue.enqueue(THANKS));
+        Assert.assertEquals(2, queue.getQueueDepth());
+        Assert.assertEquals(1, metrics.getStats(0).getRejected() - before.getRejected());
+
+        queue.shutdown();
+        Assert.assertEquals(0, queue.getQueueDepth());
+        Assert.assertEquals(Arrays.asList(Arrays.asList(HELLO, BYE)), transport.getDigests());
+    }
+
+    @Test
+    public void failedDigestsAreRetriedWithBackoff() throws InterruptedException {
+        FakeTransport transport = new FakeTransport(3, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 10, DIGEST_WINDOW_MILLIS, NEVER_MILLIS);
+        EmailStats before = metrics.getStats(0);
+
+        queue.enqueue(HELLO);
+        queue.enqueue(BYE);
+        awaitEmpty(queue);
+
+        Assert.assertEquals(Arrays.asList(Arrays.asList(HELLO, BYE)), transport.getDigests());
+        EmailStats after = metrics.getStats(0);
+        Assert.assertEquals(3, after.getFailedAttempts() - before.getFailedAttempts());
+        Assert.assertEquals(2, after.getSent() - before.getSent());
+
+        //each retry waits twice as long as the one before
+        List<Long> attemptMillis = transport.getAttemptMillis();
+        Assert.assertEquals(4, attemptMillis.size());
+        for(int i = 1; i < attemptMillis.size(); i++) {
+            Assert.assertTrue(attemptMillis.get(i) - attemptMillis.get(i - 1) >= BACKOFF_MILLIS << (i - 1));
+        }
+    }
+
+    @Test
+    public void digestsAreDroppedAfterTheLastAttempt() throws InterruptedException {
+        FakeTransport transport = new FakeTransport(Integer.MAX_VALUE, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 10, DIGEST_WINDOW_MILLIS, NEVER_MILLIS);
+        EmailStats before = metrics.getStats(0);
+
+        queue.enqueue(HELLO);
+        awaitEmpty(queue);
+
+        Assert.assertEquals(ExecutorEmailQueue.MAX_ATTEMPTS, transport.getAttemptMillis().size());
+        Assert.assertTrue(transport.getDigests().isEmpty());
+        EmailStats after = metrics.getStats(0);
+        Assert.assertEquals(ExecutorEmailQueue.MAX_ATTEMPTS, after.getFailedAttempts() - before.getFailedAttempts());
+        Assert.assertEquals(0, after.getSent() - before.getSent());
+    }
+
+    @Test
+    public void emailsAreRejectedAfterShutdown() {
+        FakeTransport transport = new FakeTransport(0, 0);
+        ExecutorEmailQueue queue = createQueue(transport, 10, DIGEST_WINDOW_MILLIS, NEVER_MILLIS);
+        EmailStats before = metrics.getStats(0);
+
+        queue.shutdown();
+
+        Assert.assertFalse(queue.enqueue(HELLO));
+        Assert.assertEquals(0, queue.getQueueDepth());
+        Assert.assertEquals(1, metrics.getStats(0).getRejected() - before.getRejected());
+        Assert.assertTrue(transport.getAttemptMillis().isEmpty());
+    }
+
+    @Test
+    public void everyAcceptedEmailIsDeliveredUnderLoad() throws InterruptedException {
+        int numClients = 8;
+        int emailsPerClient = 100;
+        FakeTransport transport = new FakeTransport(0, 20);
+        ExecutorEmailQueue queue = createQueue(transport, numClients * emailsPerClient, DIGEST_WINDOW_MILLIS, NEVER_MILLIS);
+        EmailStats before = metrics.getStats(0);
+
+        ExecutorService clients = Executors.newFixedThreadPool(numClients);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger(0);
+        for(int client = 0; client < numClients; client++) {
+            int clientId = client;
+            clients.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for(int i = 0; i < emailsPerClient; i++) {
+                    if(queue.enqueue(new ContactEmail(clientId + "@example.com", "Client " + clientId, "Message " + i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        long startMillis = System.currentTimeMillis();
+        start.countDown();
+        clients.shutdown();
+        Assert.assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+        long submitMillis = System.currentTimeMillis() - startMillis;
+        awaitEmpty(queue);
+
+        Set<ContactEmail> delivered = new HashSet<ContactEmail>();
+        for(List<ContactEmail> digest : transport.getDigests()) {
+            delivered.addAll(digest);
+        }
+        EmailStats after = metrics.getStats(0);
+
+        Assert.assertEquals(numClients * emailsPerClient, accepted.get());
+        Assert.assertEquals(0, after.getRejected() - before.getRejected());
+        //no email is delivered twice
+        Assert.assertEquals(accepted.get(), transport.getDigests().stream().mapToInt(List::size).sum());
+        Assert.assertEquals(accepted.get(), delivered.size());
+        Assert.assertEquals(accepted.get(), after.getSent() - before.getSent());
+        //one digest per window the clients were submitting in, plus the window the last email started
+        Assert.assertTrue(transport.getDigests().size() <= submitMillis / DIGEST_WINDOW_MILLIS + 2);
+        Assert.assertTrue(transport.getDigests().size() < accepted.get() / 10);
+    }
+
+    private ExecutorEmailQueue createQueue(FakeTransport transport, int capacity, long digestWindowMillis, long coalesceWindowMillis) {
+        ExecutorEmailQueue queue = new ExecutorEmailQueue(transport, 2, capacity, digestWindowMillis, coalesceWindowMillis, BACKOFF_MILLIS);
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+    * Waits until every email accepted by the queue has been sent or given up on.
+    */
+    private static void awaitEmpty(ExecutorEmailQueue queue) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10 * 1000;
+        while(queue.getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(0, queue.getQueueDepth());
+    }
+
+    /** MailTransport that takes sendMillis to send each digest and fails the first numFailures attempts. */
+    static final class FakeTransport implements MailTransport {
+        private final long sendMillis;
+        private int failuresLeft;
+        private final List<List<ContactEmail>> digests = new ArrayList<List<ContactEmail>>();
+        private final List<Long> attemptMillis = new ArrayList<Long>();
+
+        FakeTransport(int numFailures, long sendMillis) {
+            this.failuresLeft = numFailures;
+            this.sendMillis = sendMillis;
+        }
+
+        @Override
+        public void send(List<ContactEmail> emails) throws MessagingException {
+            try {
+                Thread.sleep(sendMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MessagingException("Interrupted.");
+            }
+
+            synchronized (this) {
+                attemptMillis.add(System.currentTimeMillis());
+                if(failuresLeft > 0) {
+                    failuresLeft--;
+                    throw new MessagingException("Transport is down.");
+                }
+                digests.add(new ArrayList<ContactEmail>(emails));
+            }
+        }
+
+        /**
+        * Gets the digests that were delivered, in the order they were delivered.
+        * @return List<List<ContactEmail>>
+        */
+        synchronized List<List<ContactEmail>> getDigests() {
+            return new ArrayList<List<ContactEmail>>(digests);
+        }
+
+        synchronized List<Long> getAttemptMillis() {
+            return new ArrayList<Long>(attemptMillis);
+        }
+    }
+
+}
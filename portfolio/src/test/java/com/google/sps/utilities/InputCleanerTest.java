@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InputCleanerTest {
+
+    @Test
+    public void eachSpecialCharacterIsReplaced() {
+        Assert.assertEquals("&amp;", InputCleaner.clean("&"));
+        Assert.assertEquals("&lt;", InputCleaner.clean("<"));
+        Assert.assertEquals("&gt;", InputCleaner.clean(">"));
+        Assert.assertEquals("&quot;", InputCleaner.clean("\""));
+        Assert.assertEquals("&#x27;", InputCleaner.clean("'"));
+        Assert.assertEquals("&#x2F;", InputCleaner.clean("/"));
+    }
+
+    @Test
+    public void cleanInputIsReturnedAsItIs() {
+        String str = "Nothing to replace here.";
+
+        Assert.assertSame(str, InputCleaner.clean(str));
+        Assert.assertSame("", InputCleaner.clean(""));
+    }
+
+    @Test
+    public void nonAsciiCharactersAreKept() {
+        String str = "Hyvää päivää, こんにちは 👋";
+
+        Assert.assertSame(str, InputCleaner.clean(str));
+        Assert.assertEquals("&lt;b&gt;päivää&lt;&#x2F;b&gt; 👋", InputCleaner.clean("<b>päivää</b> 👋"));
+    }
+
+    @Test
+    public void textBeforeTheFirstSpecialCharacterIsKept() {
+        Assert.assertEquals("Tom &amp; Jerry", InputCleaner.clean("Tom & Jerry"));
+        Assert.assertEquals("a &lt;script&gt;alert(&quot;hi&quot;)&lt;&#x2F;script&gt; b",
+                            InputCleaner.clean("a <script>alert(\"hi\")</script> b"));
+        Assert.assertEquals("it&#x27;s", InputCleaner.clean("it's"));
+    }
+
+}
@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.gson.Gson;
+import com.google.sps.data.Comment;
+import com.google.sps.data.Comment.CommentBuilder;
+import com.google.sps.data.LoginStatus;
+import com.google.sps.data.Marker;
+import com.google.sps.data.MarkerCluster;
+import com.google.sps.data.SongRec;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class JsonSerializationTest {
+
+    private static final Gson GSON = JsonSerialization.GSON;
+    //what the servlets used before the data classes were written by hand
+    private static final Gson REFLECTIVE_GSON = new Gson();
+    //strings that need escaping in JSON or in HTML
+    private static final String MESSAGE = "<b>Tom & 'Jerry'</b> = \"päivää\" \u2028 こんにちは";
+
+    @Test
+    public void writesTheSameJsonAsReflection() {
+        Comment comment = new CommentBuilder().setMessage("Hello <b>").setTimestamp(1).setId(2).setNumLikes(3).build();
+        SongRec songRec = new SongRec("Song", 4, 5);
+        Marker marker = new Marker(1.5, -2.5, "Here");
+        LoginStatus status = new LoginStatus(true, "/logout");
+
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(comment), GSON.toJson(comment));
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(songRec), GSON.toJson(songRec));
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(marker), GSON.toJson(marker));
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(status), GSON.toJson(status));
+    }
+
+    @Test
+    public void streamedLegacyArraysAreTheOldResponses() throws IOException {
+        List<Comment> comments = Arrays.asList(
+            new CommentBuilder().setMessage(MESSAGE).setTimestamp(1).setId(2).setNumLikes(3).setIsLiked(true).build(),
+            new CommentBuilder().setMessage("").setTimestamp(4).setId(5).build());
+        List<SongRec> songRecs = Arrays.asList(new SongRec(MESSAGE, 4, 5), new SongRec("Song", 6, 0));
+        List<Marker> markers = Arrays.asList(new Marker(1.5, -2.5, MESSAGE), new Marker(-89.999999, 179.123456789, ""));
+
+        Assert.assertEquals(writeOldResponse(comments), streamLegacyResponse(comments));
+        Assert.assertEquals(writeOldResponse(songRecs), streamLegacyResponse(songRecs));
+        Assert.assertEquals(writeOldResponse(markers), streamLegacyResponse(markers));
+    }
+
+    @Test
+    public void streamedArraysAreReflectiveArrays() throws IOException {
+        List<Comment> comments = Arrays.asList(
+            new CommentBuilder().setMessage(MESSAGE).setTimestamp(1).setId(2).setNumLikes(3).setIsLiked(true).build());
+        List<SongRec> songRecs = Arrays.asList(new SongRec(MESSAGE, 4, 5));
+
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(comments), streamArray(comments, false));
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(songRecs), streamArray(songRecs, false));
+    }
+
+    @Test
+    public void streamedClustersAreReflectiveAveragePositions() throws IOException {
+        MarkerCluster cluster = new MarkerCluster();
+        cluster.add(1, 10.1);
+        cluster.add(2, 20.2);
+        cluster.add(4, -3);
+        MarkerCluster single = new MarkerCluster(-45.5, 170.25, 1);
+
+        List<ClusterPosition> positions = Arrays.asList(new ClusterPosition(cluster), new ClusterPosition(single));
+
+        Assert.assertEquals(REFLECTIVE_GSON.toJson(positions), streamArray(Arrays.asList(cluster, single), false));
+    }
+
+    @Test
+    public void readsWhatItWrites() {
+        Comment comment = new CommentBuilder().setMessage("Hello").setTimestamp(1).setId(2).setIsLiked(true).build();
+        SongRec songRec = new SongRec("Song", 4, 5);
+        Marker marker = new Marker(1.5, -2.5, "Here");
+        LoginStatus status = new LoginStatus(false, "/login");
+
+        Assert.assertEquals(GSON.toJson(comment), GSON.toJson(GSON.fromJson(GSON.toJson(comment), Comment.class)));
+        Assert.assertEquals(GSON.toJson(songRec), GSON.toJson(GSON.fromJson(GSON.toJson(songRec), SongRec.class)));
+        Assert.assertEquals(GSON.toJson(marker), GSON.toJson(GSON.fromJson(GSON.toJson(marker), Marker.class)));
+        Assert.assertEquals(GSON.toJson(status), GSON.toJson(GSON.fromJson(GSON.toJson(status), LoginStatus.class)));
+    }
+
+    @Test
+    public void clustersAreReadFromTheirAveragePosition() {
+        MarkerCluster cluster = new MarkerCluster();
+        cluster.add(1, 10);
+        cluster.add(3, 20);
+
+        MarkerCluster actual = GSON.fromJson(GSON.toJson(cluster), MarkerCluster.class);
+
+        Assert.assertEquals(2, actual.getLat(), 1e-9);
+        Assert.assertEquals(15, actual.getLng(), 1e-9);
+        Assert.assertEquals(2, actual.getCount());
+    }
+
+    @Test
+    public void nullIsWrittenAndRead() {
+        Assert.assertEquals("null", GSON.toJson(null, Comment.class));
+        Assert.assertNull(GSON.fromJson("null", Comment.class));
+        Assert.assertNull(GSON.fromJson("null", MarkerCluster.class));
+    }
+
+    /**
+    * Writes values the way the servlets did before responses were streamed: an array of each value's reflective JSON.
+    * @return String
+    */
+    private static String writeOldResponse(List<?> values) {
+        List<String> jsonValues = new ArrayList<String>();
+        for(Object value : values) {
+            jsonValues.add(REFLECTIVE_GSON.toJson(value));
+        }
+
+        StringWriter out = new StringWriter();
+        new PrintWriter(out).println(REFLECTIVE_GSON.toJson(jsonValues));
+        return out.toString();
+    }
+
+    /**
+    * Writes values the way the servlets write the legacy format, followed by a new line.
+    * @return String
+    */
+    private static String streamLegacyResponse(List<?> values) throws IOException {
+        StringWriter out = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(out);
+        printWriter.print(streamArray(values, true));
+        printWriter.println();
+        return out.toString();
+    }
+
+    private static String streamArray(List<?> values, boolean legacyFormat) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonStreamWriter writer = new JsonStreamWriter(out, legacyFormat);
+
+        writer.beginArray();
+        for(Object value : values) {
+            writer.element(value);
+        }
+        writer.endArray().flush();
+
+        return out.toString();
+    }
+
+    /** The fields a MarkerCluster is sent with, written by reflection. */
+    private static final class ClusterPosition {
+        private final double lat;
+        private final double lng;
+        private final long count;
+
+        private ClusterPosition(MarkerCluster cluster) {
+            this.lat = cluster.getLat();
+            this.lng = cluster.getLng();
+            this.count = cluster.getCount();
+        }
+    }
+
+}
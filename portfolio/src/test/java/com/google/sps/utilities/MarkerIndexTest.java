@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks MarkerIndex against brute force over the same random markers. */
+@RunWith(JUnit4.class)
+public final class MarkerIndexTest {
+
+    private static final int NUM_MARKERS = 1000000;
+    private static final int NUM_QUERIES = 50;
+
+    private static double[] lats;
+    private static double[] lngs;
+    private static MarkerIndex index;
+
+    @BeforeClass
+    public static void setUpIndex() {
+        Random random = new Random(1);
+        lats = new double[NUM_MARKERS];
+        lngs = new double[NUM_MARKERS];
+        index = new MarkerIndex();
+
+        for(int i = 0; i < NUM_MARKERS; i++) {
+            lats[i] = random.nextDouble() * 180 - 90;
+            lngs[i] = random.nextDouble() * 360 - 180;
+            //a marker's index is the order it was added in
+            Assert.assertEquals(i, index.add(lats[i], lngs[i], null));
+        }
+    }
+
+    @Test
+    public void searchFindsTheMarkersInTheBox() {
+        Random random = new Random(2);
+
+        for(int i = 0; i < NUM_QUERIES; i++) {
+            double south = random.nextDouble() * 170 - 90;
+            double north = south + random.nextDouble() * 10;
+            double west = random.nextDouble() * 360 - 180;
+            double east = west + random.nextDouble() * 20;
+            //boxes past 180 cross the antimeridian
+            if(east > 180) {
+                east -= 360;
+            }
+
+            int[] actual = index.search(south, west, north, east);
+            Arrays.sort(actual);
+
+            Assert.assertArrayEquals(searchBruteForce(south, west, north, east), actual);
+        }
+    }
+
+    @Test
+    public void nearestFindsTheClosestMarkers() {
+        Random random = new Random(3);
+
+        for(int i = 0; i < NUM_QUERIES; i++) {
+            double lat = random.nextDouble() * 180 - 90;
+            //some points are next to the antimeridian
+            double lng = i % 5 == 0 ? 179.999 : random.nextDouble() * 360 - 180;
+            int k = 1 + random.nextInt(100);
+
+            Assert.assertArrayEquals(nearestBruteForce(lat, lng, k), index.nearest(lat, lng, k));
+        }
+    }
+
+    private static int[] searchBruteForce(double south, double west, double north, double east) {
+        return IntStream.range(0, NUM_MARKERS)
+            .filter(m -> lats[m] >= south && lats[m] <= north)
+            .filter(m -> west <= east ? lngs[m] >= west && lngs[m] <= east : lngs[m] >= west || lngs[m] <= east)
+            .toArray();
+    }
+
+    private static int[] nearestBruteForce(double lat, double lng, int k) {
+        double lngScale = Math.cos(Math.toRadians(lat));
+        //the k closest markers so far, closest first
+        int[] nearest = new int[k];
+        double[] distances = new double[k];
+        int count = 0;
+
+        for(int m = 0; m < NUM_MARKERS; m++) {
+            double lngDistance = Math.abs(lngs[m] - lng);
+            lngDistance = Math.min(lngDistance, 360 - lngDistance) * lngScale;
+            double distance = (lats[m] - lat) * (lats[m] - lat) + lngDistance * lngDistance;
+
+            if(count == k && distance >= distances[k - 1]) {
+                continue;
+            }
+
+            int i = count < k ? count++ : k - 1;
+            while(i > 0 && distances[i - 1] > distance) {
+                nearest[i] = nearest[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            nearest[i] = m;
+            distances[i] = distance;
+        }
+
+        return nearest;
+    }
+
+}
@@ -0,0 +1,72 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class ShardedLikeCounterTest {
+
+    private static final long COMMENT_ID = 1;
+
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+    private DatastoreService datastore;
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+        datastore = DatastoreServiceFactory.getDatastoreService();
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void countNeverGoesBelowZero() {
+        for(int i = 0; i < 3; i++) {
+            Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+            ShardedLikeCounter.addToCount(datastore, txn, COMMENT_ID, 1);
+            txn.commit();
+        }
+
+        int removed = 0;
+        for(int i = 0; i < 5; i++) {
+            Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+            if(ShardedLikeCounter.removeFromCount(datastore, txn, COMMENT_ID)) {
+                removed++;
+            }
+            txn.commit();
+
+            Assert.assertTrue(ShardedLikeCounter.getCount(datastore, COMMENT_ID) >= 0);
+        }
+
+        Assert.assertEquals(3, removed);
+        Assert.assertEquals(0, ShardedLikeCounter.getCount(datastore, COMMENT_ID));
+    }
+
+}
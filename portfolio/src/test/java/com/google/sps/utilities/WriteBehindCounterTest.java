@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utilities;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.apphosting.api.ApiProxy;
+import com.google.apphosting.api.ApiProxy.Environment;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class WriteBehindCounterTest {
+
+    private static final int NUM_THREADS = 8;
+    private static final int ADDS_PER_THREAD = 250;
+    private static final long[] IDS = {1, 2, 3};
+
+    private final LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+    private DatastoreService datastore;
+
+    @Before
+    public void setUp() {
+        helper.setUp();
+        datastore = DatastoreServiceFactory.getDatastoreService();
+
+        for(long id : IDS) {
+            Entity entity = new Entity("SongRec", id);
+            entity.setProperty("numLikes", 0L);
+            datastore.put(entity);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        helper.tearDown();
+    }
+
+    @Test
+    public void concurrentAddsAreAllWritten() throws Exception {
+        //flush as often as possible, so adds and flushes of different threads overlap
+        WriteBehindCounter counter = new WriteBehindCounter("SongRec", "numLikes", 1);
+
+        //Datastore calls need the test's API environment, which is only set on this thread
+        Environment environment = ApiProxy.getCurrentEnvironment();
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for(int t = 0; t < NUM_THREADS; t++) {
+            threads.add(new Thread(() -> {
+                ApiProxy.setEnvironmentForCurrentThread(environment);
+                for(int i = 0; i < ADDS_PER_THREAD; i++) {
+                    counter.add(IDS[i % IDS.length], 1);
+                }
+            }));
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+        counter.shutdown();
+
+        long total = 0;
+        for(long id : IDS) {
+            total += getNumLikes(id);
+        }
+        Assert.assertEquals(NUM_THREADS * ADDS_PER_THREAD, total);
+    }
+
+    @Test
+    public void failedWritesAreKeptForTheNextFlush() throws Exception {
+        WriteBehindCounter counter = new WriteBehindCounter("SongRec", "numLikes", Long.MAX_VALUE);
+        counter.add(1, 5);
+
+        DatastoreCallCounter datastoreCalls = DatastoreCallCounter.install();
+        datastoreCalls.setFailing(true);
+        counter.flush();
+        datastoreCalls.setFailing(false);
+
+        Assert.assertEquals(0, getNumLikes(1));
+
+        counter.add(1, 1);
+        counter.shutdown();
+
+        Assert.assertEquals(6, getNumLikes(1));
+    }
+
+    private long getNumLikes(long id) throws EntityNotFoundException {
+        return (long) datastore.get(KeyFactory.createKey("SongRec", id)).getProperty("numLikes");
+    }
+
+}
@@ -0,0 +1,103 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.CalendarIndex;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+* Compares answering a batch of requests one by one with answering them in parallel with FindMeetingQuery.queryAll, as
+* the /query-batch endpoint does. The speedup depends on the number of cores of the machine running it.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchQueryBenchmark {
+
+    @Param({"1000"})
+    public int people;
+
+    @Param({"8"})
+    public int eventsPerPerson;
+
+    @Param({"0.5"})
+    public double overlapDensity;
+
+    @Param({"500"})
+    public int batchSize;
+
+    @Param({"10"})
+    public int optionalAttendees;
+
+    private final FindMeetingQuery query = new FindMeetingQuery();
+    private CalendarIndex calendar;
+    private List<MeetingRequest> requests;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        SyntheticCalendar generator = new SyntheticCalendar(people, eventsPerPerson, overlapDensity, 3, 1);
+        calendar = new CalendarIndex(generator.createEvents());
+        requests = generator.createRequests(batchSize, 3, optionalAttendees, 30);
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Collection<TimeRange>> sequential() {
+        List<Collection<TimeRange>> answers = new ArrayList<Collection<TimeRange>>(requests.size());
+        for(MeetingRequest request : requests) {
+            answers.add(query.query(calendar, request));
+        }
+        return answers;
+    }
+
+    @Benchmark
+    public List<Collection<TimeRange>> parallel() {
+        List<Collection<TimeRange>> answers = new ArrayList<Collection<TimeRange>>(requests.size());
+        for(ForkJoinTask<Collection<TimeRange>> answer : query.queryAll(calendar, requests, pool)) {
+            answers.add(answer.join());
+        }
+        return answers;
+    }
+
+}
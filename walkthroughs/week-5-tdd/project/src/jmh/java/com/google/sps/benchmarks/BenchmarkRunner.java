@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+* Runs the JMH benchmarks and writes the results as JSON to benchmark-results/jmh-<time>.json, one file per run, so runs
+* can be compared over time. Takes the usual JMH command line options, for example "MeetingQuery -p optionalAttendees=500"
+* to run only the meeting query benchmarks with 500 optional attendees. Options may be given as one argument.
+*/
+public final class BenchmarkRunner {
+
+    private static final String RESULTS_DIRECTORY = "benchmark-results";
+
+    private BenchmarkRunner() {}
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        //Maven passes all options as one argument, which may be empty
+        List<String> options = new ArrayList<String>();
+        for(String arg : args) {
+            for(String option : arg.trim().split("\\s+")) {
+                if(!option.isEmpty()) {
+                    options.add(option);
+                }
+            }
+        }
+
+        CommandLineOptions commandLineOptions = new CommandLineOptions(options.toArray(new String[0]));
+
+        if(commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+        if(commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+
+        File resultsDirectory = new File(RESULTS_DIRECTORY);
+        resultsDirectory.mkdirs();
+        String time = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File results = new File(resultsDirectory, "jmh-" + time + ".json");
+
+        Options runOptions = new OptionsBuilder()
+            .parent(commandLineOptions)
+            .resultFormat(ResultFormatType.JSON)
+            .result(results.getPath())
+            .build();
+
+        new Runner(runOptions).run();
+        System.out.println("Results written to " + results.getPath());
+    }
+
+}
@@ -0,0 +1,132 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.CalendarIndex;
+import com.google.sps.CalendarStore;
+import com.google.sps.CompactCalendar;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.MeetingSlot;
+import com.google.sps.SlotScorer;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+* Times building and changing calendars: a CalendarIndex from Events or from a CompactCalendar of interned ids, a change to
+* a CalendarStore followed by a query, and ranking the best slots. Run with -prof gc to also see the memory allocated.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+    private static final int NUM_REQUESTS = 256;
+
+    @Param({"10000"})
+    public int people;
+
+    @Param({"8"})
+    public int eventsPerPerson;
+
+    @Param({"0.5"})
+    public double overlapDensity;
+
+    @Param({"3"})
+    public int attendeesPerEvent;
+
+    @Param({"10"})
+    public int optionalAttendees;
+
+    @Param({"5"})
+    public int k;
+
+    private final FindMeetingQuery query = new FindMeetingQuery();
+    private List<Event> events;
+    private CompactCalendar compactCalendar;
+    private CalendarIndex calendar;
+    private CalendarStore store;
+    private List<MeetingRequest> requests;
+    private int next = 0;
+    private int nextEvent = 0;
+
+    @Setup
+    public void setUp() {
+        SyntheticCalendar generator = new SyntheticCalendar(people, eventsPerPerson, overlapDensity, attendeesPerEvent, 1);
+        events = generator.createEvents();
+        compactCalendar = new CompactCalendar(events);
+        calendar = new CalendarIndex(compactCalendar);
+        requests = generator.createRequests(NUM_REQUESTS, 3, optionalAttendees, 30);
+
+        store = new CalendarStore();
+        for(Event event : events) {
+            store.add(event);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CalendarIndex indexFromEvents() {
+        return new CalendarIndex(events);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public CalendarIndex indexFromCompactCalendar() {
+        return new CalendarIndex(compactCalendar);
+    }
+
+    /**
+    * Moves one event out of the store and back, then runs a query for its attendees, which have to merge their busy times
+    * again.
+    */
+    @Benchmark
+    public Collection<TimeRange> storeChangeThenQuery() {
+        //steps through the events by a prime, so the changes are spread across the calendar
+        nextEvent = (nextEvent + 7919) % events.size();
+        Event event = events.get(nextEvent);
+        store.remove(event);
+        store.add(event);
+        return query.query(store, new MeetingRequest(event.getAttendees(), 30));
+    }
+
+    @Benchmark
+    public List<MeetingSlot> rankTopK() {
+        return query.rank(calendar, requests.get(nextRequest()), k, SlotScorer.optionalAttendees());
+    }
+
+    private int nextRequest() {
+        next = (next + 1) % NUM_REQUESTS;
+        return next;
+    }
+
+}
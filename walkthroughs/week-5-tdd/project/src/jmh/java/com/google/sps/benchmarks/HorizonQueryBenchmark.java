@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.EpochTimeRange;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.MultiDayCalendar;
+import com.google.sps.TimeRange;
+import com.google.sps.WorkingHours;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+* Times queries over a horizon of several days on a calendar of many days, with everyone working 9am to 5pm in one of a
+* few time zones.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HorizonQueryBenchmark {
+
+    private static final int NUM_REQUESTS = 256;
+    private static final ZoneId[] ZONES =
+        {ZoneId.of("America/Los_Angeles"), ZoneId.of("America/New_York"), ZoneId.of("Europe/London"), ZoneId.of("Asia/Tokyo")};
+
+    @Param({"10000"})
+    public int people;
+
+    @Param({"30"})
+    public int calendarDays;
+
+    @Param({"1", "14"})
+    public int horizonDays;
+
+    @Param({"4"})
+    public int eventsPerPersonPerDay;
+
+    @Param({"3"})
+    public int attendees;
+
+    @Param({"60"})
+    public long duration;
+
+    private final FindMeetingQuery query = new FindMeetingQuery();
+    private MultiDayCalendar calendar;
+    private EpochTimeRange horizon;
+    private List<MeetingRequest> requests;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        long firstDay = EpochTimeRange.getEpochMinute(Instant.parse("2020-01-06T00:00:00Z"));
+
+        Map<String, WorkingHours> workingHours = new HashMap<String, WorkingHours>();
+        for(int person = 0; person < people; person++) {
+            workingHours.put(SyntheticCalendar.getPerson(person),
+                new WorkingHours(ZONES[person % ZONES.length], TimeRange.getTimeInMinutes(9, 0), TimeRange.getTimeInMinutes(17, 0)));
+        }
+
+        SyntheticCalendar generator = new SyntheticCalendar(people, eventsPerPersonPerDay, 0.5, 3, 1);
+        calendar = new MultiDayCalendar(generator.createMultiDayEvents(firstDay, calendarDays), workingHours);
+
+        //the horizon starts in the middle of the calendar, so there are events before and after it
+        long horizonStart = firstDay + (long) (calendarDays / 2) * TimeRange.WHOLE_DAY.duration();
+        horizon = EpochTimeRange.fromStartDuration(horizonStart, (long) horizonDays * TimeRange.WHOLE_DAY.duration());
+        requests = generator.createRequests(NUM_REQUESTS, attendees, 0, duration);
+    }
+
+    @Benchmark
+    public Collection<EpochTimeRange> horizonQuery() {
+        next = (next + 1) % NUM_REQUESTS;
+        return query.query(calendar, requests.get(next), horizon);
+    }
+
+}
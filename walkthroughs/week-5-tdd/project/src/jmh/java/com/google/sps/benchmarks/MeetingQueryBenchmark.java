@@ -0,0 +1,123 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.CalendarIndex;
+import com.google.sps.Event;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+* Times FindMeetingQuery on a synthetic calendar with each engine: finding the free windows of the mandatory attendees,
+* finding the times with the most optional attendees, and a whole query starting from a collection of events.
+*/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MeetingQueryBenchmark {
+
+    //requests are used in turn, so one lucky request does not decide the result
+    private static final int NUM_REQUESTS = 256;
+
+    @Param({"1000"})
+    public int people;
+
+    @Param({"8"})
+    public int eventsPerPerson;
+
+    @Param({"0.5"})
+    public double overlapDensity;
+
+    @Param({"3"})
+    public int attendeesPerEvent;
+
+    @Param({"3"})
+    public int attendees;
+
+    @Param({"10", "100", "500"})
+    public int optionalAttendees;
+
+    @Param({"30"})
+    public long duration;
+
+    @Param({"INTERVALS", "BITSET"})
+    public FindMeetingQuery.Engine engine;
+
+    private FindMeetingQuery query;
+    private List<Event> events;
+    private CalendarIndex calendar;
+    private List<MeetingRequest> mandatoryRequests;
+    private List<MeetingRequest> optionalRequests;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        SyntheticCalendar generator = new SyntheticCalendar(people, eventsPerPerson, overlapDensity, attendeesPerEvent, 1);
+        events = generator.createEvents();
+        calendar = new CalendarIndex(events);
+        mandatoryRequests = generator.createRequests(NUM_REQUESTS, attendees, 0, duration);
+        optionalRequests = generator.createRequests(NUM_REQUESTS, attendees, optionalAttendees, duration);
+        query = new FindMeetingQuery(engine);
+    }
+
+    /**
+    * Only mandatory attendees, so the query only finds the free windows between their busy times.
+    */
+    @Benchmark
+    public Collection<TimeRange> freeWindows() {
+        return query.query(calendar, mandatoryRequests.get(nextRequest()));
+    }
+
+    /**
+    * Mandatory and optional attendees. With many optional attendees there is rarely a time everyone can meet, so this
+    * mostly times finding the times with the most optional attendees.
+    */
+    @Benchmark
+    public Collection<TimeRange> optionalAttendeeMaximization() {
+        return query.query(calendar, optionalRequests.get(nextRequest()));
+    }
+
+    /**
+    * A query from the collection of events, which builds a calendar index first.
+    */
+    @Benchmark
+    public Collection<TimeRange> queryFromEvents() {
+        return query.query(events, optionalRequests.get(nextRequest()));
+    }
+
+    private int nextRequest() {
+        next = (next + 1) % NUM_REQUESTS;
+        return next;
+    }
+
+}
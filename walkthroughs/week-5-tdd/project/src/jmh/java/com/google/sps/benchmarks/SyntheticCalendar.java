@@ -0,0 +1,153 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.benchmarks;
+
+import com.google.sps.EpochTimeRange;
+import com.google.sps.Event;
+import com.google.sps.MeetingRequest;
+import com.google.sps.MultiDayEvent;
+import com.google.sps.TimeRange;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+* Generates random calendars and meeting requests for the benchmarks. Every person has the same number of events, each
+* shared with a few other people picked at random. Overlap density is the average number of a person's own events going on
+* at a random minute of the day: below 1 leaves gaps between events, above 1 makes them overlap. The same seed always
+* gives the same calendar.
+*/
+public final class SyntheticCalendar {
+
+    private final int numPeople;
+    private final int eventsPerPerson;
+    private final double overlapDensity;
+    private final int attendeesPerEvent;
+    private final Random random;
+
+    public SyntheticCalendar(int numPeople, int eventsPerPerson, double overlapDensity, int attendeesPerEvent, long seed) {
+        this.numPeople = numPeople;
+        this.eventsPerPerson = eventsPerPerson;
+        this.overlapDensity = overlapDensity;
+        this.attendeesPerEvent = attendeesPerEvent;
+        this.random = new Random(seed);
+    }
+
+    public static String getPerson(int person) {
+        return "Person " + person;
+    }
+
+    /**
+    * Generates one day of events.
+    * @return List<Event>
+    */
+    public List<Event> createEvents() {
+        int dayLength = TimeRange.WHOLE_DAY.duration();
+        int eventLength = getEventLength(dayLength);
+
+        List<Event> events = new ArrayList<Event>();
+        for(int person = 0; person < numPeople; person++) {
+            for(int i = 0; i < eventsPerPerson; i++) {
+                int start = random.nextInt(dayLength - eventLength + 1);
+                events.add(new Event("Event " + events.size(), TimeRange.fromStartDuration(start, eventLength), createAttendees(person)));
+            }
+        }
+        return events;
+    }
+
+    /**
+    * Generates events over several days, eventsPerPerson events per person per day.
+    * @return List<MultiDayEvent>
+    */
+    public List<MultiDayEvent> createMultiDayEvents(long firstDay, int numDays) {
+        int dayLength = TimeRange.WHOLE_DAY.duration();
+        int eventLength = getEventLength(dayLength);
+
+        List<MultiDayEvent> events = new ArrayList<MultiDayEvent>();
+        for(int day = 0; day < numDays; day++) {
+            for(int person = 0; person < numPeople; person++) {
+                for(int i = 0; i < eventsPerPerson; i++) {
+                    long start = firstDay + (long) day * dayLength + random.nextInt(dayLength);
+                    events.add(new MultiDayEvent("Event " + events.size(), EpochTimeRange.fromStartDuration(start, eventLength), createAttendees(person)));
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+    * Generates a request for people picked at random, none of them picked twice.
+    * @return MeetingRequest
+    */
+    public MeetingRequest createRequest(int numAttendees, int numOptionalAttendees, long duration) {
+        List<String> people = new ArrayList<String>();
+        for(int person : pickPeople(numAttendees + numOptionalAttendees)) {
+            people.add(getPerson(person));
+        }
+
+        MeetingRequest request = new MeetingRequest(people.subList(0, numAttendees), duration);
+        for(String person : people.subList(numAttendees, people.size())) {
+            request.addOptionalAttendee(person);
+        }
+        return request;
+    }
+
+    /**
+    * Generates requests for people picked at random.
+    * @return List<MeetingRequest>
+    */
+    public List<MeetingRequest> createRequests(int numRequests, int numAttendees, int numOptionalAttendees, long duration) {
+        List<MeetingRequest> requests = new ArrayList<MeetingRequest>(numRequests);
+        for(int i = 0; i < numRequests; i++) {
+            requests.add(createRequest(numAttendees, numOptionalAttendees, duration));
+        }
+        return requests;
+    }
+
+    private int getEventLength(int dayLength) {
+        return (int) Math.max(1, Math.min(dayLength, Math.round(overlapDensity * dayLength / Math.max(1, eventsPerPerson))));
+    }
+
+    private List<String> createAttendees(int person) {
+        List<String> attendees = new ArrayList<String>(attendeesPerEvent);
+        attendees.add(getPerson(person));
+        for(int i = 1; i < attendeesPerEvent; i++) {
+            attendees.add(getPerson(random.nextInt(numPeople)));
+        }
+        return attendees;
+    }
+
+    /**
+    * Picks count different people, or everyone if there are not that many.
+    * @return int[]
+    */
+    private int[] pickPeople(int count) {
+        count = Math.min(count, numPeople);
+
+        //the first count entries of a partial Fisher-Yates shuffle, keeping only the entries that moved
+        Map<Integer, Integer> swapped = new HashMap<Integer, Integer>();
+        int[] picked = new int[count];
+        for(int i = 0; i < count; i++) {
+            int j = i + random.nextInt(numPeople - i);
+            int atJ = swapped.getOrDefault(j, j);
+            swapped.put(j, swapped.getOrDefault(i, i));
+            picked[i] = atJ;
+        }
+        return picked;
+    }
+
+}
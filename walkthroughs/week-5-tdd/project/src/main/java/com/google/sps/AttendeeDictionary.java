@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+* Gives each attendee name a dense int id, 0, 1, 2, ..., so calendars can store attendees as ints and index arrays by them
+* instead of hashing names. Names are interned once, when a calendar is loaded. Looking up an id can run at the same time
+* as interning new names.
+*/
+public final class AttendeeDictionary {
+
+    public static final int NO_ID = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+    //name of attendee i is names[i]
+    private volatile String[] names = new String[16];
+    private volatile int size = 0;
+
+    /**
+    * Gets the id of the attendee, giving them the next id if they do not have one yet.
+    * @return int
+    */
+    public synchronized int intern(String name) {
+        Integer id = ids.get(name);
+        if(id != null) {
+            return id;
+        }
+
+        String[] current = names;
+        if(size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = name;
+        names = current;
+
+        //the name is stored before the id is published, so anyone who sees the id can get the name
+        ids.put(name, size);
+        return size++;
+    }
+
+    /**
+    * Gets the attendees' ids, interning the names that do not have one yet.
+    * @return int[]
+    */
+    public int[] intern(Iterable<String> names) {
+        int[] internedIds = new int[8];
+        int count = 0;
+        for(String name : names) {
+            if(count == internedIds.length) {
+                internedIds = Arrays.copyOf(internedIds, count * 2);
+            }
+            internedIds[count++] = intern(name);
+        }
+        return Arrays.copyOf(internedIds, count);
+    }
+
+    /**
+    * Gets the id of the attendee without interning them.
+    * @return int, or NO_ID if the attendee has no id
+    */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id == null ? NO_ID : id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+}
@@ -0,0 +1,58 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+* Gives each attendee's busy times for the day, which is all FindMeetingQuery needs to know about a calendar. Busy times are
+* given as an int array {start 0, end 0, start 1, end 1, ...}, sorted by start time, with no two busy times overlapping or
+* touching.
+*/
+public interface BusyCalendar {
+
+    /**
+    * Gets the times the attendee is busy. The array may be shared and must not be changed.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    int[] getBusyTimes(String attendee);
+
+    /**
+    * Gets the times at least one of the attendees is busy, merging their busy times.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    default int[] getBusyTimes(Collection<String> attendees) {
+        int[][] attendeeBusyTimes = new int[attendees.size()][];
+        int total = 0;
+        int a = 0;
+        for(String attendee : attendees) {
+            attendeeBusyTimes[a] = getBusyTimes(attendee);
+            total += attendeeBusyTimes[a++].length / 2;
+        }
+
+        int[] starts = new int[total];
+        int[] ends = new int[total];
+        int count = 0;
+        for(int[] times : attendeeBusyTimes) {
+            for(int i = 0; i < times.length; i += 2) {
+                starts[count] = times[i];
+                ends[count++] = times[i + 1];
+            }
+        }
+
+        return BusyTimes.merge(starts, ends, count);
+    }
+
+}
@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+* Merges events into busy times that do not overlap or touch. The calendars and queries all merge with the same sweep, over
+* the starts and ends sorted separately: a time is busy when more events have started than ended by then. Callers that keep
+* their starts and ends sorted use mergeSorted, which skips the sort.
+*/
+final class BusyTimes {
+
+    private BusyTimes() {}
+
+    /**
+    * Merges the first count times, given as separate arrays of starts and ends. The arrays are sorted in place.
+    * @return long[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    static long[] merge(long[] starts, long[] ends, int count) {
+        Arrays.sort(starts, 0, count);
+        Arrays.sort(ends, 0, count);
+        return mergeSorted(starts, ends, count);
+    }
+
+    /**
+    * Merges the first count times, given as separate arrays of starts and ends that are each sorted already, in one pass.
+    * @return long[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    static long[] mergeSorted(long[] starts, long[] ends, int count) {
+        long[] merged = new long[count * 2];
+        int size = 0;
+        int numStarted = 0;
+        int numEnded = 0;
+
+        while(numStarted < count) {
+            //a busy time starts with the next start and lasts until as many times have ended as have started
+            long start = starts[numStarted++];
+            while(numEnded < numStarted) {
+                //starts at or before the next end keep the busy time going, so touching times are merged
+                while(numStarted < count && starts[numStarted] <= ends[numEnded]) {
+                    numStarted++;
+                }
+                numEnded++;
+            }
+
+            merged[size++] = start;
+            merged[size++] = ends[numEnded - 1];
+        }
+
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    /**
+    * Merges the first count times of a day, given in minutes as separate arrays of starts and ends. The arrays are not
+    * changed.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    static int[] merge(int[] starts, int[] ends, int count) {
+        return toInts(merge(toLongs(starts, count), toLongs(ends, count), count));
+    }
+
+    /**
+    * Merges the first count times of a day, given in minutes as separate arrays of starts and ends that are each sorted
+    * already, in one pass. The arrays are not changed.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    static int[] mergeSorted(int[] starts, int[] ends, int count) {
+        return toInts(mergeSorted(toLongs(starts, count), toLongs(ends, count), count));
+    }
+
+    private static long[] toLongs(int[] values, int count) {
+        long[] longValues = new long[count];
+        for(int i = 0; i < count; i++) {
+            longValues[i] = values[i];
+        }
+        return longValues;
+    }
+
+    private static int[] toInts(long[] values) {
+        int[] intValues = new int[values.length];
+        for(int i = 0; i < values.length; i++) {
+            intValues[i] = (int) values[i];
+        }
+        return intValues;
+    }
+
+}
@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+* Each attendee's busy times, built once from a collection of events so a query only looks at the times of the people it
+* invites. Attendees are looked up by their id in the calendar's AttendeeDictionary, so a query hashes each invited name
+* once and then only reads int arrays. An attendee's events are sorted and merged when the index is built, overlapping and touching events becoming
+* one busy time. The index does not change after it is built, so it can be shared by queries running at the same time.
+*/
+public final class CalendarIndex implements BusyCalendar {
+
+    private static final int[] NO_BUSY_TIMES = new int[0];
+
+    private final AttendeeDictionary dictionary;
+    //attendee id -> {start 0, end 0, start 1, end 1, ...}, sorted by start time, with no two busy times overlapping or touching
+    private final int[][] busyTimes;
+
+    public CalendarIndex(Collection<Event> events) {
+        this(new CompactCalendar(events));
+    }
+
+    /**
+    * Builds the index from a calendar whose attendees are already interned, so no names are hashed. Attendees added to the
+    * calendar's dictionary later have no busy times in the index.
+    */
+    public CalendarIndex(CompactCalendar calendar) {
+        this.dictionary = calendar.getDictionary();
+
+        //count each attendee's events first, so each attendee's array is allocated once
+        int numAttendees = dictionary.size();
+        int[] numEvents = new int[numAttendees];
+        for(int event = 0; event < calendar.size(); event++) {
+            if(isInDay(calendar, event)) {
+                for(int attendee : calendar.getAttendees(event)) {
+                    numEvents[attendee]++;
+                }
+            }
+        }
+
+        //each attendee's event starts and ends
+        int[][] starts = new int[numAttendees][];
+        int[][] ends = new int[numAttendees][];
+        for(int attendee = 0; attendee < numAttendees; attendee++) {
+            starts[attendee] = new int[numEvents[attendee]];
+            ends[attendee] = new int[numEvents[attendee]];
+        }
+
+        int[] count = new int[numAttendees];
+        for(int event = 0; event < calendar.size(); event++) {
+            if(isInDay(calendar, event)) {
+                int start = Math.max(calendar.getStart(event), TimeRange.START_OF_DAY);
+                int end = Math.min(calendar.getEnd(event), TimeRange.WHOLE_DAY.end());
+                for(int attendee : calendar.getAttendees(event)) {
+                    starts[attendee][count[attendee]] = start;
+                    ends[attendee][count[attendee]++] = end;
+                }
+            }
+        }
+
+        busyTimes = new int[numAttendees][];
+        for(int attendee = 0; attendee < numAttendees; attendee++) {
+            busyTimes[attendee] = BusyTimes.merge(starts[attendee], ends[attendee], numEvents[attendee]);
+            starts[attendee] = null;
+            ends[attendee] = null;
+        }
+    }
+
+    /**
+    * Wraps busy times that are already sorted and merged, see CalendarStore.
+    */
+    CalendarIndex(Map<String, int[]> busyTimes) {
+        this.dictionary = new AttendeeDictionary();
+        this.busyTimes = new int[busyTimes.size()][];
+        for(Map.Entry<String, int[]> entry : busyTimes.entrySet()) {
+            this.busyTimes[dictionary.intern(entry.getKey())] = entry.getValue();
+        }
+    }
+
+    @Override
+    public int[] getBusyTimes(String attendee) {
+        return getBusyTimes(dictionary.getId(attendee));
+    }
+
+    /**
+    * Gets the times the attendee with the id is busy. The array is shared and must not be changed.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    public int[] getBusyTimes(int attendee) {
+        return attendee >= 0 && attendee < busyTimes.length ? busyTimes[attendee] : NO_BUSY_TIMES;
+    }
+
+    public AttendeeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+    * Checks if the event has any time in the day, an event with none does not make anyone busy.
+    * @return boolean
+    */
+    private static boolean isInDay(CompactCalendar calendar, int event) {
+        return Math.max(calendar.getStart(event), TimeRange.START_OF_DAY) < Math.min(calendar.getEnd(event), TimeRange.WHOLE_DAY.end());
+    }
+
+}
@@ -0,0 +1,166 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+* A calendar that events can be added to and removed from. Each attendee keeps the starts and ends of their events in two
+* sorted int arrays, so adding or removing an event only shifts the arrays of its own attendees. An attendee's merged busy
+* times are worked out again from those arrays in one pass, without sorting, the next time they are asked for after a
+* change, so a query after a change only pays for the attendees whose events changed. All methods are synchronized, so the
+* store can be changed and queried from several threads.
+*/
+public final class CalendarStore implements BusyCalendar {
+
+    private static final int[] NO_BUSY_TIMES = new int[0];
+
+    private final Map<String, AttendeeEvents> attendeeEvents = new HashMap<String, AttendeeEvents>();
+    //event -> number of times it was added and not removed yet
+    private final Map<Event, Integer> events = new HashMap<Event, Integer>();
+
+    /**
+    * Adds an event, making its attendees busy during it.
+    */
+    public synchronized void add(Event event) {
+        events.merge(event, 1, Integer::sum);
+
+        int start = Math.max(event.getWhen().start(), TimeRange.START_OF_DAY);
+        int end = Math.min(event.getWhen().end(), TimeRange.WHOLE_DAY.end());
+
+        //an event with no time in the day does not make anyone busy
+        if(start >= end) {
+            return;
+        }
+
+        for(String attendee : event.getAttendees()) {
+            attendeeEvents.computeIfAbsent(attendee, a -> new AttendeeEvents()).add(start, end);
+        }
+    }
+
+    /**
+    * Removes one copy of an event that was added before.
+    * @return boolean, false if the event was not in the store
+    */
+    public synchronized boolean remove(Event event) {
+        Integer count = events.get(event);
+        if(count == null) {
+            return false;
+        }
+
+        if(count == 1) {
+            events.remove(event);
+        } else {
+            events.put(event, count - 1);
+        }
+
+        int start = Math.max(event.getWhen().start(), TimeRange.START_OF_DAY);
+        int end = Math.min(event.getWhen().end(), TimeRange.WHOLE_DAY.end());
+
+        if(start >= end) {
+            return true;
+        }
+
+        for(String attendee : event.getAttendees()) {
+            AttendeeEvents times = attendeeEvents.get(attendee);
+            times.remove(start, end);
+            if(times.count == 0) {
+                attendeeEvents.remove(attendee);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+    * Gets the times the attendee is busy. The array is not changed by later changes to the store.
+    * @return int[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    @Override
+    public synchronized int[] getBusyTimes(String attendee) {
+        AttendeeEvents times = attendeeEvents.get(attendee);
+        return times == null ? NO_BUSY_TIMES : times.getBusyTimes();
+    }
+
+    /**
+    * Copies the store into a CalendarIndex, which does not change and can be shared by queries running at the same time.
+    * @return CalendarIndex
+    */
+    public synchronized CalendarIndex toIndex() {
+        Map<String, int[]> busyTimes = new HashMap<String, int[]>();
+        for(Map.Entry<String, AttendeeEvents> entry : attendeeEvents.entrySet()) {
+            busyTimes.put(entry.getKey(), entry.getValue().getBusyTimes());
+        }
+        return new CalendarIndex(busyTimes);
+    }
+
+    /** The starts and ends of one attendee's events, each sorted, and the busy times merged from them. */
+    private static final class AttendeeEvents {
+        private int[] starts = new int[4];
+        private int[] ends = new int[4];
+        private int count = 0;
+        //null after a change, until the busy times are asked for again
+        private int[] busyTimes = null;
+
+        private void add(int start, int end) {
+            if(count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                ends = Arrays.copyOf(ends, count * 2);
+            }
+
+            insert(starts, count, start);
+            insert(ends, count, end);
+            count++;
+            busyTimes = null;
+        }
+
+        private void remove(int start, int end) {
+            delete(starts, count, start);
+            delete(ends, count, end);
+            count--;
+            busyTimes = null;
+        }
+
+        private int[] getBusyTimes() {
+            if(busyTimes == null) {
+                busyTimes = BusyTimes.mergeSorted(starts, ends, count);
+            }
+            return busyTimes;
+        }
+
+        /**
+        * Inserts the value into the first count values of the sorted array, which has room for one more.
+        */
+        private static void insert(int[] values, int count, int value) {
+            int index = Arrays.binarySearch(values, 0, count, value);
+            if(index < 0) {
+                index = -index - 1;
+            }
+            System.arraycopy(values, index, values, index + 1, count - index);
+            values[index] = value;
+        }
+
+        /**
+        * Deletes one copy of the value from the first count values of the sorted array, which must contain it.
+        */
+        private static void delete(int[] values, int count, int value) {
+            int index = Arrays.binarySearch(values, 0, count, value);
+            System.arraycopy(values, index + 1, values, index, count - index - 1);
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+* A day of events stored as a struct of arrays: event i is from starts[i] to ends[i] with the attendees whose ids are in
+* attendees[i]. Compared with a collection of Events, there are no TimeRange objects or sets of names per event, and
+* the attendees are ints from the calendar's AttendeeDictionary. Events are only added while the calendar is loaded.
+*/
+public final class CompactCalendar {
+
+    private final AttendeeDictionary dictionary;
+
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int[][] attendees = new int[16][];
+    private int size = 0;
+
+    public CompactCalendar() {
+        this(new AttendeeDictionary());
+    }
+
+    /**
+    * A calendar that shares its attendee ids with other calendars using the same dictionary.
+    */
+    public CompactCalendar(AttendeeDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    public CompactCalendar(Collection<Event> events) {
+        this();
+        for(Event event : events) {
+            add(event);
+        }
+    }
+
+    public void add(Event event) {
+        add(event.getWhen().start(), event.getWhen().end(), dictionary.intern(event.getAttendees()));
+    }
+
+    /**
+    * Adds an event from start to end, not including end, with attendees given as ids from the calendar's dictionary.
+    */
+    public void add(int start, int end, int[] attendeeIds) {
+        if(size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+            attendees = Arrays.copyOf(attendees, size * 2);
+        }
+
+        starts[size] = start;
+        ends[size] = end;
+        attendees[size] = attendeeIds;
+        size++;
+    }
+
+    public AttendeeDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getStart(int event) {
+        return starts[event];
+    }
+
+    public int getEnd(int event) {
+        return ends[event];
+    }
+
+    /**
+    * Gets the ids of the event's attendees. The array is shared and must not be changed.
+    * @return int[]
+    */
+    public int[] getAttendees(int event) {
+        return attendees[event];
+    }
+
+}
@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/**
+ * Class representing a span of time that can cover many days, like {@code TimeRange} but counted
+ * in minutes since 1970-01-01T00:00Z (epoch minutes) instead of minutes since the start of a day.
+ */
+public final class EpochTimeRange {
+  /**
+   * A comparator for sorting ranges by their start time in ascending order.
+   */
+  public static final Comparator<EpochTimeRange> ORDER_BY_START =
+      new Comparator<EpochTimeRange>() {
+        @Override
+        public int compare(EpochTimeRange a, EpochTimeRange b) {
+          return Long.compare(a.start, b.start);
+        }
+      };
+
+  private final long start;
+  private final long duration;
+
+  private EpochTimeRange(long start, long duration) {
+    this.start = start;
+    this.duration = duration;
+  }
+
+  /**
+   * Returns the start of the range in epoch minutes.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return duration;
+  }
+
+  /**
+   * Returns the end of the range. This ending value is the closing exclusive bound.
+   */
+  public long end() {
+    return start + duration;
+  }
+
+  /**
+   * Checks if two ranges overlap. This means that at least some part of one range falls within the
+   * bounds of another range.
+   */
+  public boolean overlaps(EpochTimeRange other) {
+    return start < other.end() && other.start < end() && duration > 0 && other.duration > 0;
+  }
+
+  /**
+   * Checks if this range completely contains another range. This means that {@code other} is a
+   * subset of this range.
+   */
+  public boolean contains(EpochTimeRange other) {
+    return other.start >= start && other.end() <= end();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochTimeRange && equals(this, (EpochTimeRange) other);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(duration);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Range: [%s, %s)", toInstant(start), toInstant(end()));
+  }
+
+  private static boolean equals(EpochTimeRange a, EpochTimeRange b) {
+    return a.start == b.start && a.duration == b.duration;
+  }
+
+  /**
+   * Returns the epoch minute that {@code instant} falls in.
+   */
+  public static long getEpochMinute(Instant instant) {
+    return Math.floorDiv(instant.getEpochSecond(), 60);
+  }
+
+  /**
+   * Returns the instant that epoch minute {@code minute} starts at.
+   */
+  public static Instant toInstant(long minute) {
+    return Instant.ofEpochSecond(minute * 60);
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} from {@code start} to {@code end}, where {@code end} is not in
+   * the range.
+   */
+  public static EpochTimeRange fromStartEnd(long start, long end) {
+    return new EpochTimeRange(start, end - start);
+  }
+
+  /**
+   * Creates an {@code EpochTimeRange} from instant {@code start} to instant {@code end}, rounded
+   * down to whole minutes.
+   */
+  public static EpochTimeRange fromStartEnd(Instant start, Instant end) {
+    return fromStartEnd(getEpochMinute(start), getEpochMinute(end));
+  }
+
+  /**
+   * Create an {@code EpochTimeRange} starting at {@code start} with a duration equal to
+   * {@code duration}.
+   */
+  public static EpochTimeRange fromStartDuration(long start, long duration) {
+    return new EpochTimeRange(start, duration);
+  }
+}
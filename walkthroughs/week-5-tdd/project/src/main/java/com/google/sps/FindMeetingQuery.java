@@ -20,30 +20,61 @@ import java.util.Comparator;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
-import java.util.Set;
-import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 
 public final class FindMeetingQuery {
+
+    /**
+    * How meeting times are found. Both engines give the same times, they differ in how the work grows with the number of
+    * events and attendees.
+    */
+    public enum Engine {
+        //sweeps over the sorted busy times of the invited attendees, see CalendarIndex
+        INTERVALS,
+        //marks busy minutes in bitsets, see BitsetMeetingQuery
+        BITSET
+    }
+
+    private final Engine engine;
+
+    public FindMeetingQuery() {
+        this(Engine.INTERVALS);
+    }
+
+    public FindMeetingQuery(Engine engine) {
+        this.engine = engine;
+    }
+
     public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+        return query(new CalendarIndex(events), request);
+    }
 
-        List<String> allAttendees = Stream.concat(request.getAttendees().stream(), request.getOptionalAttendees().stream())
-                                        .collect(Collectors.toList());
-        List<Event> validEventsAllAttendees = ignoreEventsWithoutRequestAttendees(events, allAttendees);
+    /**
+    * Finds the meeting times using a calendar's busy times, such as a CalendarIndex built once and reused for many requests,
+    * or a CalendarStore that changes as events are added and removed.
+    * @return Collection<TimeRange>, sorted by start time
+    */
+    public Collection<TimeRange> query(BusyCalendar calendar, MeetingRequest request) {
+
+        if(engine == Engine.BITSET) {
+            return new BitsetMeetingQuery().query(calendar, request);
+        }
 
         //if the duration of the meeting is over a day --> no available times
         if(request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
             return new ArrayList<TimeRange>();
         }
 
-        //if there are no events or no attendees, the entire day is available
-        if(validEventsAllAttendees.size() == 0 || allAttendees.size() == 0) {
-            return Arrays.asList(TimeRange.WHOLE_DAY);
-        }
+        List<String> allAttendees = Stream.concat(request.getAttendees().stream(), request.getOptionalAttendees().stream())
+                                        .collect(Collectors.toList());
 
-        ArrayList<TimeRange> availableTimesAllAttendees = getAvailableTimes(validEventsAllAttendees, request);
+        //if there are no events or no attendees, this is the entire day
+        List<TimeRange> availableTimesAllAttendees = getAvailableTimes(calendar.getBusyTimes(allAttendees), request.getDuration());
 
         //if there was one or more times available with optional attendees, return those times
         if(availableTimesAllAttendees.size() > 0) {
@@ -56,268 +87,310 @@ public final class FindMeetingQuery {
             return new ArrayList<TimeRange>();
         }
 
-        return getTimesWithMaxOptionalAttendees(events, request);
+        return getTimesWithMaxOptionalAttendees(calendar, request);
 
     }
 
-    private List<TimeRange> getTimesWithMaxOptionalAttendees(Collection<Event> events, MeetingRequest request) {
-
-        //if there is no time with both mandatory and optional, just look at mandatory attendees
-        List<Event> validEventsMandatoryAttendees = ignoreEventsWithoutRequestAttendees(events, request.getAttendees());
-
-        //there are mandatory employees with no events --> the whole day is available
-        if(validEventsMandatoryAttendees.size() == 0) {
-            return Arrays.asList(TimeRange.WHOLE_DAY);
+    /**
+    * Starts finding meeting times for each request in parallel on the pool. All the requests read the same calendar index,
+    * which does not change, so they do not need to wait for each other.
+    * @return List<ForkJoinTask<Collection<TimeRange>>>, one task per request in the same order, join a task to get its times
+    */
+    public List<ForkJoinTask<Collection<TimeRange>>> queryAll(CalendarIndex calendar, List<MeetingRequest> requests, ForkJoinPool pool) {
+        List<ForkJoinTask<Collection<TimeRange>>> tasks = new ArrayList<ForkJoinTask<Collection<TimeRange>>>(requests.size());
+        for(MeetingRequest request : requests) {
+            tasks.add(pool.submit(() -> query(calendar, request)));
         }
-        
-        ArrayList<TimeRange> mandatoryAttendeeTimes = getAvailableTimes(validEventsMandatoryAttendees, request);
-        ArrayList<TimeRange> optionalAttendeeTimes = getAvailableTimesForOptionalAttendees(events, request);
+        return tasks;
+    }
 
-        ArrayList<TimeRange> overlappingTimes = getTimesThatOverlapWithMandatoryAttendees(mandatoryAttendeeTimes, optionalAttendeeTimes, request.getDuration());
+    /**
+    * Finds meeting times anywhere in the horizon, which can be many days long, using each attendee's working hours. The
+    * meeting can be longer than a day. Optional attendees are invited if there is a time everyone can meet, otherwise the
+    * times the mandatory attendees can meet are returned. Both engines use the same sweep for this.
+    * @return Collection<EpochTimeRange>, sorted by start time
+    */
+    public Collection<EpochTimeRange> query(MultiDayCalendar calendar, MeetingRequest request, EpochTimeRange horizon) {
+        return new HorizonMeetingQuery().query(calendar, request, horizon);
+    }
 
-        List<Availability> availabilityForTimes = getAvailabilityForTimes(overlappingTimes, request.getDuration());
-        
-        //if there are no times where optional attendees' availability coincides with mandatory attendees' availability, just return mandatory attendee times
-        if(availabilityForTimes.size() == 0) {
-            return mandatoryAttendeeTimes;
+    /**
+    * Ranks the slots in the times the mandatory attendees are free, each as long as it can be for the optional attendees
+    * free in it, and returns the best k. The slots are scored as the sweep finds them and only the best k
+    * are kept, in a priority queue with the worst of them on top.
+    * @return List<MeetingSlot>, best first, slots with the same score ordered by start time
+    */
+    public List<MeetingSlot> rank(BusyCalendar calendar, MeetingRequest request, int k, SlotScorer scorer) {
+        if(k <= 0 || request.getDuration() > TimeRange.WHOLE_DAY.duration()) {
+            return new ArrayList<MeetingSlot>();
         }
-        
-        Collections.sort(availabilityForTimes, new Comparator<Availability>() {
-            @Override
-            public int compare(Availability a, Availability b) {
-                return b.getNumAvailablePeople() - a.getNumAvailablePeople();
-            }
-        });
-
-        int max = 0;
-
-        ArrayList<TimeRange> results = new ArrayList<TimeRange>();
 
-        //get the time ranges that have the most number of available optional attendees
-        for(Availability a : availabilityForTimes) {
-            if(a.getNumAvailablePeople() < max) {
-                break;
-            }
+        //worse slots first: lower score, or the same score and a later start
+        Comparator<MeetingSlot> worstFirst = Comparator.comparingDouble(MeetingSlot::getScore)
+            .thenComparing(slot -> slot.getWhen().start(), Comparator.reverseOrder());
+        PriorityQueue<MeetingSlot> best = new PriorityQueue<MeetingSlot>(worstFirst);
 
-            max = a.getNumAvailablePeople();
+        for(MeetingSlot slot : getSlots(calendar, request, false)) {
+            MeetingSlot scored = slot.withScore(scorer.score(slot));
 
-            if(results.contains(a.getTime())) {
-                continue;
+            if(best.size() < k) {
+                best.add(scored);
+            } else if(worstFirst.compare(scored, best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
             }
+        }
 
-            results.add(a.getTime());
+        ArrayList<MeetingSlot> results = new ArrayList<MeetingSlot>(best.size());
+        while(!best.isEmpty()) {
+            results.add(best.poll());
         }
+        Collections.reverse(results);
 
         return results;
-        
     }
 
     /**
-    * The purpose of this method is to find times where more than one optional attendee is available. The parameter, times,
-    * is a list of all times where one optional attendee is free.
-    * @return List<Availability> 
+    * Returns the slots long enough for the meeting with the most optional attendees free. If no optional attendee is free for
+    * long enough, returns the times the mandatory attendees are free.
+    * @return List<TimeRange>, sorted by start time
     */
-    private List<Availability> getAvailabilityForTimes(ArrayList<TimeRange> times, long duration) {
-
-        Collections.sort(times, TimeRange.ORDER_BY_START);
-
-        //create Availability objects with times
-        List<Availability> sortedAvailability = times.stream().map(a -> new Availability(a)).collect(Collectors.toList());
-
-        //this for loop finds new ranges where the times in the times list overlap with each other
-        //for example, 
-        //if times = 8:30-9, 8:30-9:30, 8:45-9, 9-9:30
-        //we will find 8:30-9, 8:45-9, 9-9:30 as overlapping times where more than one optional attendee is free
-        for(TimeRange time : times) {
-            
-            //stores new overlapped times where multiple optional attendees are free
-            ArrayList<Availability> overlappedAvailability = new ArrayList<Availability>();
+    private List<TimeRange> getTimesWithMaxOptionalAttendees(BusyCalendar calendar, MeetingRequest request) {
 
-            for(Availability availability : sortedAvailability) {
-
-                //if the times don't overlap, skip this availability
-                if(!time.overlaps(availability.getTime())) {
-                    continue;
-                }
-
-                TimeRange overlapTime = TimeRange.getOverlappedTime(time, availability.getTime());
-                if(overlapTime.duration() >= duration) {
-                    
-                    //if the overlapped time is the same as the availability we're looking at, just increment the number of people that can attend at the availability's time
-                    if(overlapTime.equals(availability.getTime())) {
-                        availability.incrementNumAvailablePeople();
-                    } else {
-                        //create a new availability with the overlapped time
-                        Availability overlapTimeAvailability = new Availability(overlapTime);
-                        overlapTimeAvailability.incrementNumAvailablePeople();
-                        overlappedAvailability.add(overlapTimeAvailability);
-                    }
-
-
-                }
-            }
-
-            //the next time in the times list will check if it overlaps with any of the other times in the list or any of the new overlapped times we created above
-            sortedAvailability.addAll(overlappedAvailability);
-            overlappedAvailability = new ArrayList<Availability>();
+        ArrayList<TimeRange> results = new ArrayList<TimeRange>();
+        for(MeetingSlot slot : getSlots(calendar, request, true)) {
+            results.add(slot.getWhen());
+        }
 
+        //if no optional attendee is free for long enough, just return mandatory attendee times
+        if(results.isEmpty()) {
+            return getAvailableTimes(calendar.getBusyTimes(request.getAttendees()), request.getDuration());
         }
 
+        return results;
 
-        return sortedAvailability;
-        
     }
- 
+
     /**
-    * Gets all the times where optional attendee times overlap with mandatory attendee times and are long enough for the requested meeting.
-    * @return ArrayList<TimeRange>
+    * Finds the slots in the times the mandatory attendees are free. For each time the meeting could start, the optional
+    * attendees free for the whole meeting count, even if other optional attendees come and go during it, and the slot is
+    * the longest time around the meeting in which the mandatory attendees and those optional attendees are free.
+    * @param onlyMostOptionalAttendees if true, only keeps the slots with the most optional attendees free, and none if no
+    * optional attendee is free for long enough
+    * @return List<MeetingSlot>, sorted by start time, not scored
     */
-    private ArrayList<TimeRange> getTimesThatOverlapWithMandatoryAttendees(ArrayList<TimeRange> mandatoryAttendeeTimes, ArrayList<TimeRange> optionalAttendeeTimes, long duration) {
-        ArrayList<TimeRange> availableTimes = new ArrayList<TimeRange>();
+    private List<MeetingSlot> getSlots(BusyCalendar calendar, MeetingRequest request, boolean onlyMostOptionalAttendees) {
 
-        for(TimeRange optional : optionalAttendeeTimes) {
-            
-            for(TimeRange mandatory : mandatoryAttendeeTimes) {
+        List<TimeRange> mandatoryAttendeeTimes = getAvailableTimes(calendar.getBusyTimes(request.getAttendees()), request.getDuration());
 
-                if(optional.overlaps(mandatory)) {
+        List<int[]> optionalBusyTimes = new ArrayList<int[]>();
+        for(String attendee : request.getOptionalAttendees()) {
+            optionalBusyTimes.add(calendar.getBusyTimes(attendee));
+        }
 
-                    TimeRange overlapTime = TimeRange.getOverlappedTime(optional, mandatory);
-                    
-                    if(overlapTime.duration() >= duration) {
-                        availableTimes.add(overlapTime);
-                    }
+        ArrayList<MeetingSlot> slots = new ArrayList<MeetingSlot>();
+        int max = 0;
 
-                }
-            }
+        for(TimeRange window : mandatoryAttendeeTimes) {
+            max = addSlots(window, optionalBusyTimes, (int) request.getDuration(), onlyMostOptionalAttendees, max, slots);
         }
 
-        return availableTimes;
+        if(onlyMostOptionalAttendees) {
+            int most = max;
+            slots.removeIf(slot -> slot.getNumOptionalAttendeesFree() < most);
+        }
 
-        
-    }
+        return slots;
 
+    }
 
     /**
-    * Gets all times available for each optional attendee in one list. 
-    * @return ArrayList<TimeRange>
+    * Adds the slots in one of the times the mandatory attendees are free. The window is cut at every start and end of the
+    * optional attendees' busy times, and the meeting slides through it, keeping count of how many optional attendees are busy
+    * in the pieces it covers. Who is free only changes when the meeting's start or end moves into another piece.
+    * @return int, the most optional attendees free in a slot so far
     */
-    private ArrayList<TimeRange> getAvailableTimesForOptionalAttendees(Collection<Event> events, MeetingRequest request) {
-        //every time in this list is a time that one optional attendee is available
-        ArrayList<TimeRange> timesForOptionalAttendees = new ArrayList<TimeRange>();
+    private int addSlots(TimeRange window, List<int[]> optionalBusyTimes, int duration, boolean onlyMostOptionalAttendees,
+                         int max, List<MeetingSlot> slots) {
 
-        for(String attendee : request.getOptionalAttendees()) {
-            List<Event> relevantEvents = ignoreEventsWithoutRequestAttendees(events, Arrays.asList(attendee));
-            ArrayList<TimeRange> times = getAvailableTimes(relevantEvents, request);
+        int numOptionalAttendees = optionalBusyTimes.size();
 
-            for(TimeRange time : times) {
-                timesForOptionalAttendees.add(time);
+        //the optional attendees' busy times cut to the window
+        int numBusyTimes = 0;
+        for(int[] busyTimes : optionalBusyTimes) {
+            numBusyTimes += busyTimes.length / 2;
+        }
+        int[] starts = new int[numBusyTimes];
+        int[] ends = new int[numBusyTimes];
+        int[] attendees = new int[numBusyTimes];
+        int count = 0;
+
+        for(int attendee = 0; attendee < numOptionalAttendees; attendee++) {
+            int[] busyTimes = optionalBusyTimes.get(attendee);
+            for(int i = findFirstEndingAfter(busyTimes, window.start()); i < busyTimes.length && busyTimes[i] < window.end(); i += 2) {
+                starts[count] = Math.max(busyTimes[i], window.start());
+                ends[count] = Math.min(busyTimes[i + 1], window.end());
+                attendees[count++] = attendee;
             }
         }
 
-        return timesForOptionalAttendees;
-    }
-
-    /**
-    * Gets all the available time ranges for the meeting request. 
-    * @return ArrayList<TimeRange>
-    */
-    private ArrayList<TimeRange> getAvailableTimes(Collection<Event> events, MeetingRequest request) {
-        ArrayList<TimeRange> availableTimes = new ArrayList<TimeRange>();
-
-        ArrayList<Event> sortedEventsList = sortEventsByStartTime(events);
-
-        //start time of the time range
-        int startTime = TimeRange.START_OF_DAY;
-        long duration = request.getDuration();
-        int i = 0;
-
-        //while there is enough time for the requested meeting from the startTime of the timerange till the end of the day
-        while(startTime + duration <= TimeRange.END_OF_DAY) {
-
-            int endTime = startTime;
-            TimeRange currentEventTime = sortedEventsList.get(i).getWhen();
-
-            while(i < sortedEventsList.size()) {
-                
-                currentEventTime = sortedEventsList.get(i).getWhen();
-                
-                i++;
-                //if there is enough time to have the requested meeting from startTime to the beginning of the event we're currently looking at, we can create a new timerange
-                //from startTime - the end of the current event time
-                if(currentEventTime.start() >= startTime + duration) {
-                    endTime = currentEventTime.start();
-                    break;
-                //if there is an overlap between the current event and the requested event, make the new startTime the end of the current event
-                } else if(currentEventTime.start() >= startTime && currentEventTime.start() < startTime + duration) {
-                    startTime = currentEventTime.end();
-                } 
-
+        //the cuts, sorted with no duplicates, so piece p goes from cuts[p] to cuts[p + 1]
+        int[] cuts = new int[count * 2 + 2];
+        cuts[0] = window.start();
+        cuts[1] = window.end();
+        System.arraycopy(starts, 0, cuts, 2, count);
+        System.arraycopy(ends, 0, cuts, 2 + count, count);
+        int numCuts = sortUnique(cuts);
+
+        //busy times sorted by the cut they start at and by the cut they end at, the cut in the high bits
+        long[] byStart = new long[count];
+        long[] byEnd = new long[count];
+        for(int i = 0; i < count; i++) {
+            byStart[i] = ((long) Arrays.binarySearch(cuts, 0, numCuts, starts[i]) << 32) | i;
+            byEnd[i] = ((long) Arrays.binarySearch(cuts, 0, numCuts, ends[i]) << 32) | i;
+        }
+        Arrays.sort(byStart);
+        Arrays.sort(byEnd);
+
+        //the meeting starts where its start reaches a cut, or where its end moves past one
+        int lastStart = window.end() - duration;
+        int[] meetingStarts = new int[numCuts * 2];
+        int numMeetingStarts = 0;
+        for(int c = 0; c < numCuts; c++) {
+            meetingStarts[numMeetingStarts++] = Math.min(cuts[c], lastStart);
+            meetingStarts[numMeetingStarts++] = Math.min(Math.max(cuts[c] - duration + 1, window.start()), lastStart);
+        }
+        numMeetingStarts = sortUnique(meetingStarts);
+
+        //number of each optional attendee's busy times in the pieces from first to last, the ones the meeting covers
+        int[] numBusyTimesInMeeting = new int[numOptionalAttendees];
+        int numAttendeesBusy = 0;
+        int added = 0;
+        int removed = 0;
+        int first = 0;
+        int last = 0;
+
+        ArrayList<MeetingSlot> windowSlots = new ArrayList<MeetingSlot>();
+
+        for(int m = 0; m < numMeetingStarts; m++) {
+            int meetingStart = meetingStarts[m];
+            while(cuts[first + 1] <= meetingStart) {
+                first++;
+            }
+            while(cuts[last + 1] < meetingStart + duration) {
+                last++;
             }
 
-            //if the endTime of the time range (which was set to startTime) is greater than or equal to the duration of the meeting, it can be added as a new time range
-            if(endTime >= startTime + duration) {
-                availableTimes.add(TimeRange.fromStartEnd(startTime, endTime, false));
+            for(; added < count && (int) (byStart[added] >>> 32) <= last; added++) {
+                if(numBusyTimesInMeeting[attendees[(int) byStart[added]]]++ == 0) {
+                    numAttendeesBusy++;
+                }
+            }
+            for(; removed < count && (int) (byEnd[removed] >>> 32) <= first; removed++) {
+                if(--numBusyTimesInMeeting[attendees[(int) byEnd[removed]]] == 0) {
+                    numAttendeesBusy--;
+                }
             }
 
-            //takes care of overlapping meetings
-            //for example, currentEvent = meeting 2
-            //meeting 1: 8:30am - 10am
-            //meeting 2: 9am - 9:30am
-            //we want the startTime of the next timerange to still be 10am, not 9:30am because meeting 1 is still going on
-            startTime = Math.max(currentEventTime.end(), startTime);
-
-            //if we've looked at all meetings and there is enough time (until the end of the day) for the new meeting, create a new time range until the end of the day
-            if(i == sortedEventsList.size() && TimeRange.END_OF_DAY - startTime >= duration) {
-                availableTimes.add(TimeRange.fromStartEnd(startTime, TimeRange.END_OF_DAY, true));
-                break;
+            int numFree = numOptionalAttendees - numAttendeesBusy;
+            if(onlyMostOptionalAttendees && (numFree == 0 || numFree < max)) {
+                continue;
+            }
+            max = Math.max(max, numFree);
+
+            //the slot goes back to where one of the free optional attendees was last busy, and on until one of them starts
+            //being busy again
+            int start = window.start();
+            int end = window.end();
+            if(numFree > 0) {
+                for(int r = removed - 1; r >= 0; r--) {
+                    if(numBusyTimesInMeeting[attendees[(int) byEnd[r]]] == 0) {
+                        start = cuts[(int) (byEnd[r] >>> 32)];
+                        break;
+                    }
+                }
+                for(int a = added; a < count; a++) {
+                    if(numBusyTimesInMeeting[attendees[(int) byStart[a]]] == 0) {
+                        end = cuts[(int) (byStart[a] >>> 32)];
+                        break;
+                    }
+                }
             }
 
+            windowSlots.add(new MeetingSlot(TimeRange.fromStartEnd(start, end, false), window, numFree, duration, 0));
         }
 
-        return availableTimes;
+        //meeting starts with the same optional attendees free give the same slot
+        windowSlots.sort(Comparator.comparingInt((MeetingSlot slot) -> slot.getWhen().start())
+                                   .thenComparingInt(slot -> slot.getWhen().end()));
+        for(MeetingSlot slot : windowSlots) {
+            if(slots.isEmpty() || !slots.get(slots.size() - 1).getWhen().equals(slot.getWhen())) {
+                slots.add(slot);
+            }
+        }
+
+        return max;
 
     }
 
     /**
-    * Creates a new ArrayList containing events with attendee overlap with the requested meeting. If no required attendees in the requested meeting
-    * are required at a specific event, that event will not be considered when creating TimeRange for the requested meeting.
-    * @return List<Event>
+    * Sorts the times and moves the distinct ones to the front.
+    * @return int, the number of distinct times
     */
-    private List<Event> ignoreEventsWithoutRequestAttendees(Collection<Event> events, Collection<String> requestAttendees) {
-        return events
-        .stream()
-        .filter(e -> anyAttendeeBusy(e, requestAttendees))
-        .collect(Collectors.toList());
+    private static int sortUnique(int[] times) {
+        Arrays.sort(times);
+        int size = 0;
+        for(int time : times) {
+            if(size == 0 || times[size - 1] != time) {
+                times[size++] = time;
+            }
+        }
+        return size;
     }
 
     /**
-    * Checks if there are any attendees required at the requested meeting that are also required at the specified Event.
-    * @return boolean, true if there is an attendee overlap, false otherwise
+    * Finds the first busy time that ends after the time, with a binary search over the end times.
+    * @return int, index of its start in busyTimes, or busyTimes.length if there is none
     */
-    private boolean anyAttendeeBusy(Event event, Collection<String> requestAttendees) {
-        Set<String> eventAttendees = event.getAttendees();
-
-        return requestAttendees
-        .stream()
-        .map(a -> eventAttendees.contains(a))
-        .reduce(false, (a, b) -> a || b);
+    private static int findFirstEndingAfter(int[] busyTimes, int time) {
+        int low = 0;
+        int high = busyTimes.length / 2;
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(busyTimes[mid * 2 + 1] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low * 2;
     }
 
     /**
-    * Creates a sorted list of events based on the event's start time.
-    * @return ArrayList<Event>
+    * Gets the times between the busy times that are long enough for the meeting.
+    * @return List<TimeRange>, sorted by start time
     */
-    private ArrayList<Event> sortEventsByStartTime(Collection<Event> events) {
-        ArrayList<Event> eventsList = new ArrayList<Event>(events);
+    private List<TimeRange> getAvailableTimes(int[] busyTimes, long duration) {
+        ArrayList<TimeRange> availableTimes = new ArrayList<TimeRange>();
+
+        //start time of the next time range, the end of the last busy time
+        int startTime = TimeRange.START_OF_DAY;
 
-        Collections.sort(eventsList, new Comparator<Event>() {
-            @Override
-            public int compare(Event a, Event b) {
-                return TimeRange.ORDER_BY_START.compare(a.getWhen(), b.getWhen());
+        for(int i = 0; i <= busyTimes.length; i += 2) {
+            //after the last busy time, the time range goes until the end of the day
+            int endTime = i < busyTimes.length ? busyTimes[i] : TimeRange.WHOLE_DAY.end();
+
+            //if there is enough time to have the requested meeting from startTime to endTime, create a new time range
+            if(endTime > startTime && endTime - startTime >= duration) {
+                availableTimes.add(TimeRange.fromStartEnd(startTime, endTime, false));
+            }
+
+            if(i < busyTimes.length) {
+                startTime = busyTimes[i + 1];
             }
-        });
+        }
 
-        return eventsList;
+        return availableTimes;
 
     }
 }
@@ -0,0 +1,112 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+* Finds meeting times anywhere in a horizon of many days. Each attendee's busy times in the horizon are found with a binary
+* search and joined with the times they are not working, then all of them are merged in one sort, so the work grows with
+* the number of events in the horizon and the number of days, not the number of minutes.
+*/
+final class HorizonMeetingQuery {
+
+    /**
+    * Gets the times in the horizon all attendees, including optional attendees, can meet. If there are none, gets the
+    * times the mandatory attendees can meet, unless there are only optional attendees.
+    * @return List<EpochTimeRange>, sorted by start time
+    */
+    public List<EpochTimeRange> query(MultiDayCalendar calendar, MeetingRequest request, EpochTimeRange horizon) {
+
+        //if the meeting is longer than the horizon --> no available times
+        if(request.getDuration() > horizon.duration()) {
+            return new ArrayList<EpochTimeRange>();
+        }
+
+        List<String> allAttendees = Stream.concat(request.getAttendees().stream(), request.getOptionalAttendees().stream())
+                                        .collect(Collectors.toList());
+
+        List<EpochTimeRange> availableTimesAllAttendees = getAvailableTimes(calendar, allAttendees, horizon, request.getDuration());
+
+        if(availableTimesAllAttendees.size() > 0 || request.getAttendees().size() == 0) {
+            return availableTimesAllAttendees;
+        }
+
+        return getAvailableTimes(calendar, request.getAttendees(), horizon, request.getDuration());
+    }
+
+    /**
+    * Gets the times in the horizon that none of the attendees are busy or off work, long enough for the meeting.
+    * @return List<EpochTimeRange>, sorted by start time
+    */
+    private List<EpochTimeRange> getAvailableTimes(MultiDayCalendar calendar, Collection<String> attendees, EpochTimeRange horizon, long duration) {
+        long[] starts = new long[16];
+        long[] ends = new long[16];
+        int count = 0;
+
+        for(String attendee : attendees) {
+            long[] busyTimes = calendar.getBusyTimes(attendee);
+            int first = MultiDayCalendar.findFirstBusyTimeAfter(busyTimes, horizon.start());
+            int last = first;
+            while(last < busyTimes.length && busyTimes[last] < horizon.end()) {
+                last += 2;
+            }
+
+            WorkingHours workingHours = calendar.getWorkingHours(attendee);
+            long[] timesOff = workingHours == null ? new long[0] : workingHours.getTimesOff(horizon.start(), horizon.end());
+
+            int needed = count + (last - first) / 2 + timesOff.length / 2;
+            if(needed > starts.length) {
+                starts = Arrays.copyOf(starts, Math.max(needed, starts.length * 2));
+                ends = Arrays.copyOf(ends, starts.length);
+            }
+
+            for(int i = first; i < last; i += 2) {
+                starts[count] = Math.max(busyTimes[i], horizon.start());
+                ends[count++] = Math.min(busyTimes[i + 1], horizon.end());
+            }
+            for(int i = 0; i < timesOff.length; i += 2) {
+                starts[count] = timesOff[i];
+                ends[count++] = timesOff[i + 1];
+            }
+        }
+
+        long[] busyTimes = BusyTimes.merge(starts, ends, count);
+
+        List<EpochTimeRange> availableTimes = new ArrayList<EpochTimeRange>();
+        long startTime = horizon.start();
+
+        for(int i = 0; i <= busyTimes.length; i += 2) {
+            //after the last busy time, the time range goes until the end of the horizon
+            long endTime = i < busyTimes.length ? busyTimes[i] : horizon.end();
+
+            if(endTime > startTime && endTime - startTime >= duration) {
+                availableTimes.add(EpochTimeRange.fromStartEnd(startTime, endTime));
+            }
+
+            if(i < busyTimes.length) {
+                startTime = busyTimes[i + 1];
+            }
+        }
+
+        return availableTimes;
+    }
+
+}
@@ -58,6 +58,15 @@ public final class MeetingRequest {
     }
   }
 
+  /**
+   * Returns whether the request has its attendees and a duration that is not negative. A request
+   * read from JSON may be missing fields or have null attendees, which the constructor never allows.
+   */
+  public boolean isComplete() {
+    return attendees != null && optional_attendees != null && !attendees.contains(null)
+        && !optional_attendees.contains(null) && duration >= 0;
+  }
+
   /**
    * Returns the duration of the meeting in minutes.
    */
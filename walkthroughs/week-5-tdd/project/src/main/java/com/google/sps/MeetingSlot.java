@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+* A time the mandatory attendees of a request are free, long enough for the meeting, and as long as it can be for the
+* optional attendees who are free for all of it. The meeting can start at any time in it that leaves enough room before its
+* end.
+*/
+public final class MeetingSlot {
+
+    private final TimeRange when;
+    //all of the mandatory attendees' free time that when is part of
+    private final TimeRange window;
+    private final int numOptionalAttendeesFree;
+    private final long duration;
+    private final double score;
+
+    MeetingSlot(TimeRange when, TimeRange window, int numOptionalAttendeesFree, long duration, double score) {
+        this.when = when;
+        this.window = window;
+        this.numOptionalAttendeesFree = numOptionalAttendeesFree;
+        this.duration = duration;
+        this.score = score;
+    }
+
+    public TimeRange getWhen() {
+        return when;
+    }
+
+    public TimeRange getWindow() {
+        return window;
+    }
+
+    public int getNumOptionalAttendeesFree() {
+        return numOptionalAttendeesFree;
+    }
+
+    /**
+    * Gets the duration of the meeting in minutes.
+    * @return long
+    */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+    * Gets the score the slot was ranked by, or 0 if it was not ranked.
+    * @return double
+    */
+    public double getScore() {
+        return score;
+    }
+
+    MeetingSlot withScore(double score) {
+        return new MeetingSlot(when, window, numOptionalAttendeesFree, duration, score);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Slot: %s, %d optional attendees free, score %.2f", when, numOptionalAttendeesFree, score);
+    }
+
+}
@@ -0,0 +1,113 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+* Each attendee's busy times across any number of days, along with their working hours. Like CalendarIndex, an
+* attendee's events are sorted and merged when the calendar is built, and the calendar does not change afterwards. Busy
+* times are found with a binary search, so a query over a horizon only looks at the busy times inside it.
+*/
+public final class MultiDayCalendar {
+
+    private static final long[] NO_BUSY_TIMES = new long[0];
+
+    //attendee -> {start 0, end 0, start 1, end 1, ...} in epoch minutes, sorted by start time, with no two busy times overlapping or touching
+    private final Map<String, long[]> busyTimes = new HashMap<String, long[]>();
+    private final Map<String, WorkingHours> workingHours;
+
+    /**
+    * @param workingHours attendee -> working hours, attendees without working hours can meet at any time
+    */
+    public MultiDayCalendar(Collection<MultiDayEvent> events, Map<String, WorkingHours> workingHours) {
+        //starts and ends of each attendee's events, sorted separately before merging
+        Map<String, long[]> starts = new HashMap<String, long[]>();
+        Map<String, long[]> ends = new HashMap<String, long[]>();
+        Map<String, Integer> numEvents = new HashMap<String, Integer>();
+
+        for(MultiDayEvent event : events) {
+            if(event.getWhen().duration() <= 0) {
+                continue;
+            }
+
+            for(String attendee : event.getAttendees()) {
+                int count = numEvents.getOrDefault(attendee, 0);
+                long[] attendeeStarts = starts.get(attendee);
+                long[] attendeeEnds = ends.get(attendee);
+
+                if(attendeeStarts == null) {
+                    attendeeStarts = new long[4];
+                    attendeeEnds = new long[4];
+                } else if(count == attendeeStarts.length) {
+                    attendeeStarts = Arrays.copyOf(attendeeStarts, count * 2);
+                    attendeeEnds = Arrays.copyOf(attendeeEnds, count * 2);
+                }
+                attendeeStarts[count] = event.getWhen().start();
+                attendeeEnds[count] = event.getWhen().end();
+
+                starts.put(attendee, attendeeStarts);
+                ends.put(attendee, attendeeEnds);
+                numEvents.put(attendee, count + 1);
+            }
+        }
+
+        for(String attendee : numEvents.keySet()) {
+            busyTimes.put(attendee, BusyTimes.merge(starts.get(attendee), ends.get(attendee), numEvents.get(attendee)));
+        }
+
+        this.workingHours = new HashMap<String, WorkingHours>(workingHours);
+    }
+
+    /**
+    * Gets the working hours of the attendee.
+    * @return WorkingHours, or null if the attendee can meet at any time
+    */
+    public WorkingHours getWorkingHours(String attendee) {
+        return workingHours.get(attendee);
+    }
+
+    /**
+    * Gets the times the attendee is busy. The array is shared and must not be changed.
+    * @return long[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    long[] getBusyTimes(String attendee) {
+        return busyTimes.getOrDefault(attendee, NO_BUSY_TIMES);
+    }
+
+    /**
+    * Finds the first of the busy times that ends after the epoch minute, with a binary search over the ends.
+    * @return int, index of the busy time's start in busyTimes, or busyTimes.length if they all end by then
+    */
+    static int findFirstBusyTimeAfter(long[] busyTimes, long minute) {
+        int low = 0;
+        int high = busyTimes.length / 2;
+
+        while(low < high) {
+            int mid = (low + high) >>> 1;
+            if(busyTimes[mid * 2 + 1] <= minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low * 2;
+    }
+
+}
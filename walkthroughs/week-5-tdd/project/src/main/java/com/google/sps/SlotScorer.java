@@ -0,0 +1,85 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+* Scores meeting slots for ranking, higher is better. Scorers can be added together and weighted, for example
+* SlotScorer.optionalAttendees().plus(SlotScorer.timeOfDay(noon).times(0.5)).
+*/
+@FunctionalInterface
+public interface SlotScorer {
+
+    double score(MeetingSlot slot);
+
+    default SlotScorer plus(SlotScorer other) {
+        return slot -> score(slot) + other.score(slot);
+    }
+
+    default SlotScorer times(double weight) {
+        return slot -> score(slot) * weight;
+    }
+
+    /**
+    * Scores a slot by the number of optional attendees free during it.
+    * @return SlotScorer
+    */
+    static SlotScorer optionalAttendees() {
+        return slot -> slot.getNumOptionalAttendeesFree();
+    }
+
+    /**
+    * Scores a slot by how close the meeting can start to the preferred time, losing one point per hour away from it.
+    * @return SlotScorer
+    */
+    static SlotScorer timeOfDay(int preferredTime) {
+        return slot -> {
+            int earliestStart = slot.getWhen().start();
+            long latestStart = slot.getWhen().end() - slot.getDuration();
+
+            long distance = 0;
+            if(preferredTime < earliestStart) {
+                distance = earliestStart - preferredTime;
+            } else if(preferredTime > latestStart) {
+                distance = preferredTime - latestStart;
+            }
+
+            return -distance / 60.0;
+        };
+    }
+
+    /**
+    * Scores a slot by the free time it leaves around the meeting, if the meeting starts at the start of the slot. Loses one
+    * point for each piece of the mandatory attendees' free time left before or after the meeting that is too short for
+    * another meeting of the same length.
+    * @return SlotScorer
+    */
+    static SlotScorer fragmentation() {
+        return slot -> {
+            long before = slot.getWhen().start() - slot.getWindow().start();
+            long after = slot.getWindow().end() - slot.getWhen().start() - slot.getDuration();
+
+            int penalty = 0;
+            if(before > 0 && before < slot.getDuration()) {
+                penalty++;
+            }
+            if(after > 0 && after < slot.getDuration()) {
+                penalty++;
+            }
+
+            return -penalty;
+        };
+    }
+
+}
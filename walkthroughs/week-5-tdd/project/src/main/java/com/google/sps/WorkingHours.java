@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+* The hours of the day an attendee can be invited to meetings, in the attendee's own time zone. Times outside of them are
+* treated like busy times. Working hours can not go past midnight.
+*/
+public final class WorkingHours {
+
+    private final ZoneId zone;
+    //minutes after local midnight, end not included
+    private final int start;
+    private final int end;
+    private final Set<DayOfWeek> days;
+
+    /**
+    * Working hours that are the same every day of the week.
+    */
+    public WorkingHours(ZoneId zone, int start, int end) {
+        this(zone, start, end, EnumSet.allOf(DayOfWeek.class));
+    }
+
+    public WorkingHours(ZoneId zone, int start, int end, Set<DayOfWeek> days) {
+        if(zone == null) {
+            throw new IllegalArgumentException("zone cannot be null");
+        }
+
+        if(start < TimeRange.START_OF_DAY || end > TimeRange.WHOLE_DAY.end() || start >= end) {
+            throw new IllegalArgumentException("Working hours must start before they end, within one day.");
+        }
+
+        if(days == null || days.isEmpty()) {
+            throw new IllegalArgumentException("days cannot be null or empty");
+        }
+
+        this.zone = zone;
+        this.start = start;
+        this.end = end;
+        this.days = EnumSet.copyOf(days);
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public Set<DayOfWeek> getDays() {
+        return Collections.unmodifiableSet(days);
+    }
+
+    /**
+    * Gets the times between epoch minutes from and to that are outside of the working hours. Each local day is converted
+    * on its own, so days where the clocks change get the right hours.
+    * @return long[], {start 0, end 0, start 1, end 1, ...}, sorted by start time
+    */
+    long[] getTimesOff(long from, long to) {
+        long[] timesOff = new long[8];
+        int size = 0;
+
+        //start of the time off that is being built
+        long offStart = from;
+        LocalDate date = EpochTimeRange.toInstant(from).atZone(zone).toLocalDate();
+
+        while(getEpochMinute(date, 0) < to) {
+            if(days.contains(date.getDayOfWeek())) {
+                long workStart = getEpochMinute(date, start);
+                long workEnd = getEpochMinute(date, end);
+
+                if(workStart > offStart) {
+                    if(size + 2 > timesOff.length) {
+                        timesOff = Arrays.copyOf(timesOff, timesOff.length * 2);
+                    }
+                    timesOff[size++] = offStart;
+                    timesOff[size++] = Math.min(workStart, to);
+                }
+                offStart = Math.max(offStart, workEnd);
+            }
+            date = date.plusDays(1);
+        }
+
+        if(offStart < to) {
+            if(size + 2 > timesOff.length) {
+                timesOff = Arrays.copyOf(timesOff, timesOff.length + 2);
+            }
+            timesOff[size++] = offStart;
+            timesOff[size++] = to;
+        }
+
+        return Arrays.copyOf(timesOff, size);
+    }
+
+    private long getEpochMinute(LocalDate date, int minuteOfDay) {
+        return EpochTimeRange.getEpochMinute(date.atStartOfDay().plusMinutes(minuteOfDay).atZone(zone).toInstant());
+    }
+
+}
@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.sps.CalendarIndex;
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers many meeting requests at once. The requests are answered in parallel against one calendar
+ * index, and the answers are written back in the order of the requests as soon as each is ready.
+ */
+@WebServlet("/query-batch")
+public class QueryBatchServlet extends HttpServlet {
+  // Larger batches should be split by the caller, so one batch cannot hold the pool for too long.
+  private static final int MAX_BATCH_SIZE = 1000;
+
+  private static final Type ANSWER_TYPE = new TypeToken<Collection<TimeRange>>() {}.getType();
+
+  private final Gson gson = new Gson();
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+
+  // The events do not change, so they are indexed once and the index is shared by all requests.
+  private CalendarIndex calendar;
+  private ForkJoinPool pool;
+
+  @Override
+  public void init() {
+    calendar = new CalendarIndex(Arrays.asList(Events.events));
+    pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+  }
+
+  @Override
+  public void destroy() {
+    pool.shutdown();
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON array to a list of MeetingRequests.
+    List<MeetingRequest> meetingRequests;
+    try {
+      MeetingRequest[] parsed = gson.fromJson(request.getReader(), MeetingRequest[].class);
+      meetingRequests = parsed == null ? Arrays.asList() : Arrays.asList(parsed);
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a JSON array of meeting requests.");
+      return;
+    }
+
+    if (meetingRequests.size() > MAX_BATCH_SIZE) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+          "At most " + MAX_BATCH_SIZE + " meeting requests can be sent at once.");
+      return;
+    }
+
+    // Check every request before answering any, since an error cannot be sent once answers are.
+    for (int i = 0; i < meetingRequests.size(); i++) {
+      if (meetingRequests.get(i) == null || !meetingRequests.get(i).isComplete()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Meeting request " + i
+            + " needs attendees, optional_attendees and a duration that is not negative.");
+        return;
+      }
+    }
+
+    // Start finding the possible meeting times for every request.
+    List<ForkJoinTask<Collection<TimeRange>>> answers =
+        findMeetingQuery.queryAll(calendar, meetingRequests, pool);
+
+    // Send each answer back as soon as it and the answers before it are ready.
+    response.setContentType("application/json");
+    JsonWriter writer = new JsonWriter(response.getWriter());
+    writer.beginArray();
+    for (ForkJoinTask<Collection<TimeRange>> answer : answers) {
+      gson.toJson(answer.join(), ANSWER_TYPE, writer);
+      writer.flush();
+    }
+    writer.endArray();
+    writer.flush();
+  }
+}
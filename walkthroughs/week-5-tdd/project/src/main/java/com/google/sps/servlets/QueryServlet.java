@@ -14,14 +14,18 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.CalendarIndex;
 import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.MeetingSlot;
+import com.google.sps.SlotScorer;
 import com.google.sps.TimeRange;
 import com.google.gson.Gson;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -29,6 +33,21 @@ import javax.servlet.http.HttpServletResponse;
 
 @WebServlet("/query")
 public class QueryServlet extends HttpServlet {
+  // With a k parameter, the best k slots are returned, ranked by how many optional attendees are free
+  // and then by how little unusable free time they leave.
+  private static final SlotScorer RANKING =
+      SlotScorer.optionalAttendees().plus(SlotScorer.fragmentation().times(0.5));
+  // The page lists the slots, so longer lists are not useful, and the ranking keeps up to k slots at once.
+  static final int MAX_NUM_SLOTS = 100;
+
+  // The events do not change, so they are indexed once and the index is shared by all requests.
+  private CalendarIndex calendar;
+
+  @Override
+  public void init() {
+    calendar = new CalendarIndex(Arrays.asList(Events.events));
+  }
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     Gson gson = new Gson();
@@ -38,8 +57,29 @@ public class QueryServlet extends HttpServlet {
 
     // Find the possible meeting times.
     FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    String k = request.getParameter("k");
+    if (k != null) {
+      int numSlots;
+      try {
+        numSlots = Integer.parseInt(k);
+      } catch (NumberFormatException e) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid value for k.");
+        return;
+      }
+
+      if (numSlots <= 0 || numSlots > MAX_NUM_SLOTS) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+            "k must be between 1 and " + MAX_NUM_SLOTS + ".");
+        return;
+      }
+
+      List<MeetingSlot> slots = findMeetingQuery.rank(calendar, meetingRequest, numSlots, RANKING);
+      response.setContentType("application/json");
+      response.getWriter().println(gson.toJson(slots));
+      return;
+    }
+
+    Collection<TimeRange> answer = findMeetingQuery.query(calendar, meetingRequest);
 
     // Convert the times to JSON
     String jsonResponse = gson.toJson(answer);
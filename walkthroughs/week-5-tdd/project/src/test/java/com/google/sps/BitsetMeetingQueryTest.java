@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Edge cases for the bitset engine: the end of the day and slots across segments. */
+@RunWith(JUnit4.class)
+public final class BitsetMeetingQueryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0820AM = TimeRange.getTimeInMinutes(8, 20);
+  private static final int TIME_0840AM = TimeRange.getTimeInMinutes(8, 40);
+  private static final int TIME_2330PM = TimeRange.getTimeInMinutes(23, 30);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private BitsetMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new BitsetMeetingQuery();
+  }
+
+  @Test
+  public void exactlyEnoughRoomAtEndOfDay() {
+    // The last 30 minutes of the day are free, which is just enough for the meeting.
+    //
+    // Events  : |-----------A-----------|
+    // Day     : |-----------------------------|
+    // Options :                         |--1--|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_2330PM, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(new CalendarIndex(events), request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_2330PM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeFreeAcrossSegments() {
+    // Person A is only free from 8:00 to 8:40. Person B is free for all of it while Person C and
+    // then Person D are busy, so no stretch where the same optional attendees are free is long
+    // enough on its own, but Person B can make a meeting across both.
+    //
+    // Events  : |--ABCD--|         |--AC--|
+    //                    |-C-|-D-|
+    // Day     : |-----------------------------|
+    // Options :          |---1---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0840AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A, PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_0820AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0820AM, TIME_0840AM, false),
+            Arrays.asList(PERSON_D)),
+        new Event("Event 5", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_C, PERSON_D)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    Collection<TimeRange> actual = query.query(new CalendarIndex(events), request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0840AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
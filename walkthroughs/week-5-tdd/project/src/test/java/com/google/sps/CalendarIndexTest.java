@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CalendarIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  @Test
+  public void busyTimesAreSortedAndMerged() {
+    // Event 3 overlaps event 1 and event 2 touches it, so all three are one busy time.
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A))));
+
+    int[] expected = {TIME_0800AM, TIME_0830AM, TIME_0900AM, TIME_1100AM};
+
+    Assert.assertArrayEquals(expected, calendar.getBusyTimes(PERSON_A));
+  }
+
+  @Test
+  public void attendeesAreIndexedSeparately() {
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A, PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B))));
+
+    Assert.assertArrayEquals(new int[] {TIME_0800AM, TIME_0900AM}, calendar.getBusyTimes(PERSON_A));
+    Assert.assertArrayEquals(new int[] {TIME_0800AM, TIME_1000AM}, calendar.getBusyTimes(PERSON_B));
+    Assert.assertArrayEquals(new int[0], calendar.getBusyTimes(PERSON_C));
+  }
+
+  @Test
+  public void busyTimesOfSeveralAttendeesAreMerged() {
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C))));
+
+    int[] expected = {TIME_0800AM, TIME_0930AM};
+
+    Assert.assertArrayEquals(expected, calendar.getBusyTimes(Arrays.asList(PERSON_A, PERSON_B)));
+  }
+
+  @Test
+  public void emptyEventsAreIgnored() {
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, 0), Arrays.asList(PERSON_A))));
+
+    Assert.assertArrayEquals(new int[0], calendar.getBusyTimes(PERSON_A));
+  }
+}
@@ -0,0 +1,147 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Checks that the busy times kept up to date by the store match the busy times worked out again
+ * from all of its events, after every change in a random sequence of changes.
+ */
+@RunWith(JUnit4.class)
+public final class CalendarStoreTest {
+  private static final int NUM_CHANGES = 3000;
+  private static final int NUM_PEOPLE = 5;
+
+  private static final String PERSON_A = "Person 0";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  @Test
+  public void busyTimesMatchRecomputationAfterEachChange() {
+    // A fixed seed so a failure can be reproduced.
+    Random random = new Random(2022);
+    CalendarStore store = new CalendarStore();
+    List<Event> events = new ArrayList<>();
+
+    for (int i = 0; i < NUM_CHANGES; i++) {
+      // Add more often than remove so the calendar fills up, and sometimes add a copy of an event
+      // that is already there.
+      int change = random.nextInt(10);
+      if (change < 4 && events.size() > 0) {
+        Event event = events.remove(random.nextInt(events.size()));
+        Assert.assertTrue(store.remove(event));
+      } else if (change < 5 && events.size() > 0) {
+        Event event = events.get(random.nextInt(events.size()));
+        events.add(event);
+        store.add(event);
+      } else {
+        Event event = createEvent(random, "Event " + i);
+        events.add(event);
+        store.add(event);
+      }
+
+      CalendarIndex recomputed = new CalendarIndex(events);
+      for (int person = 0; person < NUM_PEOPLE; person++) {
+        String attendee = "Person " + person;
+        Assert.assertArrayEquals("change " + i + ", " + attendee,
+            recomputed.getBusyTimes(attendee), store.getBusyTimes(attendee));
+      }
+
+      MeetingRequest request = createRequest(random);
+      Assert.assertEquals("change " + i, query.query(recomputed, request),
+          query.query(store, request));
+    }
+  }
+
+  @Test
+  public void indexMatchesStore() {
+    Random random = new Random(2023);
+    CalendarStore store = new CalendarStore();
+
+    for (int i = 0; i < 100; i++) {
+      store.add(createEvent(random, "Event " + i));
+    }
+    CalendarIndex index = store.toIndex();
+
+    for (int person = 0; person < NUM_PEOPLE; person++) {
+      String attendee = "Person " + person;
+      Assert.assertArrayEquals(store.getBusyTimes(attendee), index.getBusyTimes(attendee));
+    }
+  }
+
+  @Test
+  public void removingAnEventThatWasNotAdded() {
+    CalendarStore store = new CalendarStore();
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+
+    Assert.assertFalse(store.remove(event));
+  }
+
+  @Test
+  public void removingOneCopyKeepsTheOther() {
+    CalendarStore store = new CalendarStore();
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    Event other = new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+
+    store.add(event);
+    store.add(event);
+    store.add(other);
+    Assert.assertArrayEquals(new int[] {TIME_0800AM, TIME_1000AM}, store.getBusyTimes(PERSON_A));
+
+    Assert.assertTrue(store.remove(event));
+    Assert.assertArrayEquals(new int[] {TIME_0800AM, TIME_1000AM}, store.getBusyTimes(PERSON_A));
+
+    Assert.assertTrue(store.remove(event));
+    Assert.assertArrayEquals(new int[] {TIME_0900AM, TIME_1000AM}, store.getBusyTimes(PERSON_A));
+
+    Assert.assertFalse(store.remove(event));
+  }
+
+  private Event createEvent(Random random, String title) {
+    List<String> attendees = new ArrayList<>();
+    for (int person = 0; person < NUM_PEOPLE; person++) {
+      if (random.nextInt(3) == 0) {
+        attendees.add("Person " + person);
+      }
+    }
+
+    // Starts and ends are rounded to 15 minutes so events often touch.
+    int start = random.nextInt(TimeRange.WHOLE_DAY.duration() / 15) * 15;
+    int end = Math.min(start + random.nextInt(12) * 15, TimeRange.WHOLE_DAY.end());
+    return new Event(title, TimeRange.fromStartEnd(start, end, false), attendees);
+  }
+
+  private MeetingRequest createRequest(Random random) {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList("Person " + random.nextInt(NUM_PEOPLE)), 30);
+    request.addOptionalAttendee("Person " + random.nextInt(NUM_PEOPLE));
+    return request;
+  }
+}
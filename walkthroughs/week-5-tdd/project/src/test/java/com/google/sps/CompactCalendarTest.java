@@ -0,0 +1,90 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CompactCalendarTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  @Test
+  public void namesAreInternedOnce() {
+    AttendeeDictionary dictionary = new AttendeeDictionary();
+
+    int a = dictionary.intern(PERSON_A);
+    int b = dictionary.intern(PERSON_B);
+
+    Assert.assertEquals(0, a);
+    Assert.assertEquals(1, b);
+    Assert.assertEquals(a, dictionary.intern(PERSON_A));
+    Assert.assertEquals(PERSON_B, dictionary.getName(b));
+    Assert.assertEquals(AttendeeDictionary.NO_ID, dictionary.getId("Person C"));
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void eventsAreStoredAsIds() {
+    CompactCalendar calendar = new CompactCalendar(Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), Arrays.asList(PERSON_A))));
+
+    Assert.assertEquals(1, calendar.size());
+    Assert.assertEquals(TIME_0800AM, calendar.getStart(0));
+    Assert.assertEquals(TIME_0900AM, calendar.getEnd(0));
+    Assert.assertArrayEquals(new int[] {calendar.getDictionary().getId(PERSON_A)},
+        calendar.getAttendees(0));
+  }
+
+  @Test
+  public void indexMatchesIndexOfEvents() {
+    // A fixed seed so a failure can be reproduced.
+    Random random = new Random(2024);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+      int end = Math.min(start + random.nextInt(120), TimeRange.WHOLE_DAY.end());
+      events.add(new Event("Event " + i, TimeRange.fromStartEnd(start, end, false),
+          Arrays.asList("Person " + random.nextInt(20), "Person " + random.nextInt(20))));
+    }
+
+    CompactCalendar compact = new CompactCalendar();
+    for (Event event : events) {
+      compact.add(event);
+    }
+    CalendarIndex index = new CalendarIndex(compact);
+    CalendarStore store = new CalendarStore();
+    for (Event event : events) {
+      store.add(event);
+    }
+
+    for (int person = 0; person < 20; person++) {
+      String attendee = "Person " + person;
+      Assert.assertArrayEquals(attendee, store.getBusyTimes(attendee), index.getBusyTimes(attendee));
+      Assert.assertArrayEquals(attendee, index.getBusyTimes(attendee),
+          index.getBusyTimes(compact.getDictionary().getId(attendee)));
+    }
+  }
+}
@@ -0,0 +1,79 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks that answering requests in parallel gives the same times as answering them one by one. */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryBatchTest {
+  private static final String[] PEOPLE =
+      {"Amelia", "Ava", "Emma", "Isabella", "James", "Liam", "Logan", "Noah", "Oliver", "Olivia"};
+  private static final int[] DURATIONS = {15, 30, 60, 90, 120};
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+  private final CalendarIndex calendar = new CalendarIndex(Arrays.asList(Events.events));
+  private ForkJoinPool pool;
+
+  @Before
+  public void setUp() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @After
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  public void answersAreInTheOrderOfTheRequests() {
+    List<MeetingRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      // Request i invites people i % 10 and i / 10 % 10, with the next person optional.
+      MeetingRequest request = new MeetingRequest(
+          Arrays.asList(PEOPLE[i % PEOPLE.length], PEOPLE[i / PEOPLE.length % PEOPLE.length]),
+          DURATIONS[i % DURATIONS.length]);
+      request.addOptionalAttendee(PEOPLE[(i + 1) % PEOPLE.length]);
+      requests.add(request);
+    }
+
+    List<ForkJoinTask<Collection<TimeRange>>> answers = query.queryAll(calendar, requests, pool);
+
+    Assert.assertEquals(requests.size(), answers.size());
+    for (int i = 0; i < requests.size(); i++) {
+      Assert.assertEquals("request " + i, query.query(calendar, requests.get(i)),
+          answers.get(i).join());
+    }
+  }
+
+  @Test
+  public void noRequests() {
+    List<ForkJoinTask<Collection<TimeRange>>> answers =
+        query.queryAll(calendar, Arrays.asList(), pool);
+
+    Assert.assertEquals(0, answers.size());
+  }
+}
@@ -0,0 +1,241 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Compares both engines, on randomly generated calendars, with a brute-force query that tries
+ * every minute of the day as the start of the meeting.
+ */
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryEnginesTest {
+  private static final int NUM_CALENDARS = 2000;
+  private static final int NUM_PEOPLE = 6;
+  private static final int MAX_EVENTS = 10;
+  private static final int[] DURATIONS = {1, 15, 30, 60, 90, 240};
+
+  private final FindMeetingQuery intervals =
+      new FindMeetingQuery(FindMeetingQuery.Engine.INTERVALS);
+  private final FindMeetingQuery bitset = new FindMeetingQuery(FindMeetingQuery.Engine.BITSET);
+
+  @Test
+  public void enginesMatchBruteForceOnRandomCalendars() {
+    // A fixed seed so a failure can be reproduced.
+    Random random = new Random(2020);
+
+    for (int i = 0; i < NUM_CALENDARS; i++) {
+      Collection<Event> events = createEvents(random);
+      MeetingRequest request = createRequest(random);
+
+      assertEnginesMatchBruteForce("calendar " + i, events, request);
+    }
+  }
+
+  @Test
+  public void enginesMatchBruteForceWithManyOptionalAttendees() {
+    Random random = new Random(2021);
+
+    for (int i = 0; i < NUM_CALENDARS / 10; i++) {
+      Collection<Event> events = new ArrayList<>();
+      MeetingRequest request = new MeetingRequest(Arrays.asList("Person 0"), 30);
+
+      for (int person = 1; person < 50; person++) {
+        request.addOptionalAttendee("Person " + person);
+        events.add(createEvent(random, "Event " + person, Arrays.asList("Person " + person)));
+      }
+      events.add(createEvent(random, "Event 0", Arrays.asList("Person 0")));
+
+      assertEnginesMatchBruteForce("calendar " + i, events, request);
+    }
+  }
+
+  private void assertEnginesMatchBruteForce(
+      String message, Collection<Event> events, MeetingRequest request) {
+    Collection<TimeRange> expected = bruteForce(events, request);
+    Assert.assertEquals(message, expected, intervals.query(events, request));
+    Assert.assertEquals(message, expected, bitset.query(events, request));
+  }
+
+  /**
+   * Tries every minute as the start of the meeting. If no time works for everyone, keeps the starts
+   * with the most optional attendees free for the whole meeting, each grown for as long as the
+   * mandatory attendees and those optional attendees stay free.
+   */
+  private static List<TimeRange> bruteForce(Collection<Event> events, MeetingRequest request) {
+    int day = TimeRange.WHOLE_DAY.duration();
+    int duration = (int) Math.min(request.getDuration(), day + 1);
+
+    boolean[] mandatoryBusy = getBusyMinutes(events, request.getAttendees());
+    List<boolean[]> optionalBusy = new ArrayList<>();
+    boolean[] allBusy = mandatoryBusy.clone();
+    for (String attendee : request.getOptionalAttendees()) {
+      boolean[] busy = getBusyMinutes(events, Arrays.asList(attendee));
+      optionalBusy.add(busy);
+      for (int minute = 0; minute < day; minute++) {
+        allBusy[minute] |= busy[minute];
+      }
+    }
+
+    List<TimeRange> everyone = getFreeRanges(allBusy, duration);
+    if (!everyone.isEmpty() || request.getAttendees().isEmpty()) {
+      return everyone;
+    }
+
+    int max = 0;
+    List<TimeRange> slots = new ArrayList<>();
+
+    for (int start = 0; start + duration <= day; start++) {
+      int end = start + duration;
+      if (isBusy(mandatoryBusy, start, end)) {
+        continue;
+      }
+
+      List<boolean[]> free = new ArrayList<>();
+      free.add(mandatoryBusy);
+      for (boolean[] busy : optionalBusy) {
+        if (!isBusy(busy, start, end)) {
+          free.add(busy);
+        }
+      }
+      int numFree = free.size() - 1;
+      if (numFree == 0 || numFree < max) {
+        continue;
+      }
+
+      int slotStart = start;
+      while (slotStart > 0 && !isBusyForAny(free, slotStart - 1)) {
+        slotStart--;
+      }
+      int slotEnd = end;
+      while (slotEnd < day && !isBusyForAny(free, slotEnd)) {
+        slotEnd++;
+      }
+
+      if (numFree > max) {
+        max = numFree;
+        slots.clear();
+      }
+      TimeRange slot = TimeRange.fromStartEnd(slotStart, slotEnd, false);
+      if (!slots.contains(slot)) {
+        slots.add(slot);
+      }
+    }
+
+    if (max == 0) {
+      return getFreeRanges(mandatoryBusy, duration);
+    }
+    Collections.sort(slots, TimeRange.ORDER_BY_START);
+    return slots;
+  }
+
+  private static boolean[] getBusyMinutes(Collection<Event> events, Collection<String> attendees) {
+    boolean[] busy = new boolean[TimeRange.WHOLE_DAY.duration()];
+    for (Event event : events) {
+      if (!Collections.disjoint(event.getAttendees(), attendees)) {
+        for (int minute = event.getWhen().start(); minute < event.getWhen().end(); minute++) {
+          busy[minute] = true;
+        }
+      }
+    }
+    return busy;
+  }
+
+  private static List<TimeRange> getFreeRanges(boolean[] busy, int duration) {
+    List<TimeRange> ranges = new ArrayList<>();
+    int start = 0;
+    for (int minute = 0; minute <= busy.length; minute++) {
+      if (minute == busy.length || busy[minute]) {
+        if (minute - start >= duration && minute > start) {
+          ranges.add(TimeRange.fromStartEnd(start, minute, false));
+        }
+        start = minute + 1;
+      }
+    }
+    return ranges;
+  }
+
+  private static boolean isBusy(boolean[] busy, int start, int end) {
+    for (int minute = start; minute < end; minute++) {
+      if (busy[minute]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isBusyForAny(List<boolean[]> busy, int minute) {
+    for (boolean[] attendeeBusy : busy) {
+      if (attendeeBusy[minute]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Collection<Event> createEvents(Random random) {
+    List<Event> events = new ArrayList<>();
+    int numEvents = random.nextInt(MAX_EVENTS + 1);
+
+    for (int i = 0; i < numEvents; i++) {
+      List<String> attendees = new ArrayList<>();
+      for (int person = 0; person < NUM_PEOPLE; person++) {
+        if (random.nextInt(3) == 0) {
+          attendees.add("Person " + person);
+        }
+      }
+      events.add(createEvent(random, "Event " + i, attendees));
+    }
+
+    return events;
+  }
+
+  private Event createEvent(Random random, String title, Collection<String> attendees) {
+    int start = random.nextInt(TimeRange.WHOLE_DAY.duration());
+    int end = Math.min(start + 1 + random.nextInt(240), TimeRange.WHOLE_DAY.end());
+    return new Event(title, TimeRange.fromStartEnd(start, end, false), attendees);
+  }
+
+  private MeetingRequest createRequest(Random random) {
+    List<String> attendees = new ArrayList<>();
+    List<String> optionalAttendees = new ArrayList<>();
+
+    for (int person = 0; person < NUM_PEOPLE; person++) {
+      int role = random.nextInt(3);
+      if (role == 0) {
+        attendees.add("Person " + person);
+      } else if (role == 1) {
+        optionalAttendees.add("Person " + person);
+      }
+    }
+
+    MeetingRequest request =
+        new MeetingRequest(attendees, DURATIONS[random.nextInt(DURATIONS.length)]);
+    for (String attendee : optionalAttendees) {
+      request.addOptionalAttendee(attendee);
+    }
+
+    return request;
+  }
+}
@@ -0,0 +1,189 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class FindMeetingQueryRankTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+
+  private final FindMeetingQuery query = new FindMeetingQuery();
+
+  // Person A is busy until 8am and after 5pm. Person B is busy 9am to 11am and Person C is busy
+  // 10am to noon.
+  //
+  // Events  : |--A--|                     |--A--|
+  //                    |--B--|
+  //                       |--C--|
+  // Day     : |-----------------------------------|
+  // Slots   :       |2|
+  //                 |---1---|
+  //                 |-------------0-------------|
+  //                          |-------1----------|
+  //                             |-------2-------|
+  private final CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+          Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartEnd(TIME_0500PM, TimeRange.END_OF_DAY, true),
+          Arrays.asList(PERSON_A)),
+      new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false),
+          Arrays.asList(PERSON_B)),
+      new Event("Event 4", TimeRange.fromStartEnd(TIME_1000AM, TIME_1200PM, false),
+          Arrays.asList(PERSON_C))));
+
+  @Test
+  public void slotsAreRankedByOptionalAttendees() {
+    List<MeetingSlot> actual =
+        query.rank(calendar, createRequest(), 3, SlotScorer.optionalAttendees());
+
+    // Slots with the same score keep the earlier one first.
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1200PM, TIME_0500PM, false),
+        TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)), getTimes(actual));
+    Assert.assertEquals(2, actual.get(0).getNumOptionalAttendeesFree());
+    Assert.assertEquals(2.0, actual.get(0).getScore(), 0);
+    Assert.assertEquals(1, actual.get(2).getNumOptionalAttendeesFree());
+  }
+
+  @Test
+  public void allSlotsWhenKIsLarge() {
+    List<MeetingSlot> actual =
+        query.rank(calendar, createRequest(), 100, SlotScorer.optionalAttendees());
+
+    Assert.assertEquals(5, actual.size());
+    Assert.assertEquals(TimeRange.fromStartEnd(TIME_0800AM, TIME_0500PM, false),
+        actual.get(4).getWhen());
+    Assert.assertEquals(0, actual.get(4).getNumOptionalAttendeesFree());
+  }
+
+  @Test
+  public void slotsAreRankedByTimeOfDay() {
+    // A meeting can start at 11:30am in the slot with no optional attendees and in the 11am slot, so
+    // both score the same and the earlier one comes first.
+    int preferredTime = TimeRange.getTimeInMinutes(11, 30);
+    List<MeetingSlot> actual =
+        query.rank(calendar, createRequest(), 2, SlotScorer.timeOfDay(preferredTime));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0500PM, false),
+        TimeRange.fromStartEnd(TIME_1100AM, TIME_0500PM, false)), getTimes(actual));
+  }
+
+  @Test
+  public void combinedScores() {
+    // The afternoon slot has both optional attendees free and is closest to 2pm.
+    int preferredTime = TimeRange.getTimeInMinutes(14, 0);
+    SlotScorer scorer =
+        SlotScorer.optionalAttendees().plus(SlotScorer.timeOfDay(preferredTime).times(0.1));
+    List<MeetingSlot> actual = query.rank(calendar, createRequest(), 1, scorer);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_1200PM, TIME_0500PM, false)),
+        getTimes(actual));
+  }
+
+  @Test
+  public void fragmentationPenalty() {
+    // Person A is free from 8am to 10:30am. A 1 hour meeting at the start of the 9am slot, which
+    // Person B can make, leaves 30 unusable minutes after it, while one at 8am leaves an hour and a
+    // half after it.
+    int time1030AM = TimeRange.getTimeInMinutes(10, 30);
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(time1030AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    List<MeetingSlot> actual = query.rank(calendar, request, 2, SlotScorer.fragmentation());
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, time1030AM, false),
+        TimeRange.fromStartEnd(TIME_0900AM, time1030AM, false)), getTimes(actual));
+    Assert.assertEquals(0.0, actual.get(0).getScore(), 0);
+    Assert.assertEquals(-1.0, actual.get(1).getScore(), 0);
+  }
+
+  @Test
+  public void bestSlotsCrossBusyTimesOfOtherOptionalAttendees() {
+    // Person A is free from 9am to 11am. Person C is busy until 9:30am and Person B from 10:30am,
+    // so a 90 minute meeting can have one of them, across the other one's busy time.
+    int time0930AM = TimeRange.getTimeInMinutes(9, 30);
+    int time1030AM = TimeRange.getTimeInMinutes(10, 30);
+    CalendarIndex calendar = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, time0930AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(time1030AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_B))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), 90);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    List<MeetingSlot> actual = query.rank(calendar, request, 3, SlotScorer.optionalAttendees());
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, time1030AM, false),
+        TimeRange.fromStartEnd(time0930AM, TIME_1100AM, false),
+        TimeRange.fromStartEnd(TIME_0900AM, TIME_1100AM, false)), getTimes(actual));
+    Assert.assertEquals(1, actual.get(0).getNumOptionalAttendeesFree());
+    Assert.assertEquals(1, actual.get(1).getNumOptionalAttendeesFree());
+    Assert.assertEquals(0, actual.get(2).getNumOptionalAttendeesFree());
+  }
+
+  @Test
+  public void noSlotsForZeroK() {
+    List<MeetingSlot> actual =
+        query.rank(calendar, createRequest(), 0, SlotScorer.optionalAttendees());
+
+    Assert.assertEquals(0, actual.size());
+  }
+
+  private MeetingRequest createRequest() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    return request;
+  }
+
+  private static List<TimeRange> getTimes(Collection<MeetingSlot> slots) {
+    List<TimeRange> times = new ArrayList<>();
+    for (MeetingSlot slot : slots) {
+      times.add(slot.getWhen());
+    }
+    return times;
+  }
+}
@@ -23,10 +23,11 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
-/** */
-@RunWith(JUnit4.class)
+/** Runs every test once for each engine. */
+@RunWith(Parameterized.class)
 public final class FindMeetingQueryTest {
   private static final Collection<Event> NO_EVENTS = Collections.emptySet();
   private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
@@ -40,12 +41,17 @@ public final class FindMeetingQueryTest {
   // All dates are the first day of the year 2020.
   private static final int TIME_0700AM = TimeRange.getTimeInMinutes(7, 0);
   private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0820AM = TimeRange.getTimeInMinutes(8, 20);
   private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0840AM = TimeRange.getTimeInMinutes(8, 40);
   private static final int TIME_0845AM = TimeRange.getTimeInMinutes(8, 45);
   private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
   private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
   private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1030AM = TimeRange.getTimeInMinutes(10, 30);
   private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 00);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 00);
+  private static final int TIME_2330PM = TimeRange.getTimeInMinutes(23, 30);
 
   private static final int DURATION_30_MINUTES = 30;
   private static final int DURATION_60_MINUTES = 60;
@@ -53,11 +59,25 @@ public final class FindMeetingQueryTest {
   private static final int DURATION_1_HOUR = 60;
   private static final int DURATION_2_HOUR = 120;
 
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> engines() {
+    List<Object[]> engines = new ArrayList<>();
+    for (FindMeetingQuery.Engine engine : FindMeetingQuery.Engine.values()) {
+      engines.add(new Object[] {engine});
+    }
+    return engines;
+  }
+
+  private final FindMeetingQuery.Engine engine;
   private FindMeetingQuery query;
 
+  public FindMeetingQueryTest(FindMeetingQuery.Engine engine) {
+    this.engine = engine;
+  }
+
   @Before
   public void setUp() {
-    query = new FindMeetingQuery();
+    query = new FindMeetingQuery(engine);
   }
 
   @Test
@@ -496,5 +516,150 @@ public final class FindMeetingQueryTest {
         Assert.assertEquals(expected, actual);
 
   }
-}
 
+  @Test
+  public void shorterEventStartsInsideOverlappingEvents() {
+    // The second event runs past the end of the first, and the third starts after the second but
+    // ends before it. Person A is busy until the end of the second event.
+    //
+    // Events  :       |--A--|
+    //                    |---A---|
+    //                      |A|
+    // Day     : |-----------------------------|
+    // Options : |--1--|          |-----2------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0845AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void exactlyEnoughRoomAtEndOfDay() {
+    // The last 30 minutes of the day are free, which is just enough for the meeting.
+    //
+    // Events  : |-----------A-----------|
+    // Day     : |-----------------------------|
+    // Options :                         |--1--|
+
+    Collection<Event> events = Arrays.asList(new Event("Event 1",
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_2330PM, false), Arrays.asList(PERSON_A)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_2330PM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesFreeAtDifferentTimes() {
+    // Have one mandatory attendee, Person A, who is free all day, and two optional attendees who
+    // are each free for half of it. No time works for everyone, so each half is an option with
+    // one optional attendee.
+    //
+    // Events  : |------C------|------B------|
+    // Day     : |---------------------------|
+    // Options : |------1------|------2------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1200PM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1200PM, false),
+            TimeRange.fromStartEnd(TIME_1200PM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesChangeTooOften() {
+    // Person A is only free from 8:00 to 8:40. Person C and then Person D are busy, so the optional
+    // attendees who are free change at 8:20, but Person B is free for all of it and can make a
+    // meeting across the change.
+    //
+    // Events  : |--ABCD--|         |--AC--|
+    //                    |-C-|-D-|
+    // Day     : |-----------------------------|
+    // Options :          |---1---|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C, PERSON_D)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0840AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A, PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0800AM, TIME_0820AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_0820AM, TIME_0840AM, false),
+            Arrays.asList(PERSON_D)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0840AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeesFreeAcrossEachOthersBusyTimes() {
+    // Person A is free from 9:00 to 11:00. Person C is busy at the start of it and Person B at the
+    // end, so each of them is free for long enough on one side of the other's busy time, but not
+    // together.
+    //
+    // Events  : |--A--|C|   |B|--A--|
+    // Day     : |---------------------|
+    // Options :       |--1--|
+    //                   |--1--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1030AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_B)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_90_MINUTES);
+
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_1030AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TIME_1100AM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+}
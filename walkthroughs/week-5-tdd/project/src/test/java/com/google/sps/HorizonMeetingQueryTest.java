@@ -0,0 +1,182 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Tests finding meeting times in a horizon of several days. */
+@RunWith(JUnit4.class)
+public final class HorizonMeetingQueryTest {
+  private static final Collection<MultiDayEvent> NO_EVENTS = Collections.emptySet();
+
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final ZoneId UTC = ZoneId.of("UTC");
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+  private static final int DURATION_2_DAYS = 2 * 24 * 60;
+
+  // Monday to Thursday, 6 to 9 January 2020, UTC.
+  private static final EpochTimeRange MONDAY_TO_THURSDAY =
+      EpochTimeRange.fromStartEnd(at("2020-01-06T00:00:00Z"), at("2020-01-10T00:00:00Z"));
+
+  private FindMeetingQuery query;
+  private Map<String, WorkingHours> workingHours;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+    workingHours = new HashMap<>();
+  }
+
+  @Test
+  public void meetingLongerThanADay() {
+    // Person A is busy Monday morning, which leaves a time from Monday noon to the end of the
+    // horizon for a two day meeting.
+    Collection<MultiDayEvent> events = Arrays.asList(new MultiDayEvent("Event 1",
+        range("2020-01-06T00:00:00Z", "2020-01-06T12:00:00Z"), Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_2_DAYS);
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(events, workingHours), request, MONDAY_TO_THURSDAY);
+    Collection<EpochTimeRange> expected =
+        Arrays.asList(range("2020-01-06T12:00:00Z", "2020-01-10T00:00:00Z"));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void eventsOutsideTheHorizonAreIgnored() {
+    // The first event ends inside the horizon and the second starts after it.
+    Collection<MultiDayEvent> events = Arrays.asList(
+        new MultiDayEvent("Event 1", range("2020-01-01T00:00:00Z", "2020-01-06T09:00:00Z"),
+            Arrays.asList(PERSON_A)),
+        new MultiDayEvent("Event 2", range("2020-01-10T00:00:00Z", "2020-01-11T00:00:00Z"),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(events, workingHours), request, MONDAY_TO_THURSDAY);
+    Collection<EpochTimeRange> expected =
+        Arrays.asList(range("2020-01-06T09:00:00Z", "2020-01-10T00:00:00Z"));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingHoursInDifferentTimeZones() {
+    // 9am to 5pm in New York and in London overlap from 2pm to 5pm UTC in January.
+    workingHours.put(PERSON_A, new WorkingHours(NEW_YORK, TIME_0900AM, TIME_0500PM));
+    workingHours.put(PERSON_B, new WorkingHours(LONDON, TIME_0900AM, TIME_0500PM));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_1_HOUR);
+    EpochTimeRange monday =
+        EpochTimeRange.fromStartEnd(at("2020-01-06T00:00:00Z"), at("2020-01-07T00:00:00Z"));
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(NO_EVENTS, workingHours), request, monday);
+    Collection<EpochTimeRange> expected =
+        Arrays.asList(range("2020-01-06T14:00:00Z", "2020-01-06T17:00:00Z"));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingHoursSkipTheWeekend() {
+    workingHours.put(PERSON_A, new WorkingHours(UTC, TIME_0900AM, TIME_0500PM,
+        EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    EpochTimeRange saturdayToMonday =
+        EpochTimeRange.fromStartEnd(at("2020-01-04T00:00:00Z"), at("2020-01-07T00:00:00Z"));
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(NO_EVENTS, workingHours), request, saturdayToMonday);
+    Collection<EpochTimeRange> expected =
+        Arrays.asList(range("2020-01-06T09:00:00Z", "2020-01-06T17:00:00Z"));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void workingHoursFollowDaylightSavingTime() {
+    // Clocks in New York go forward on 8 March 2020, so 9am is 2pm UTC before and 1pm UTC after.
+    workingHours.put(PERSON_A, new WorkingHours(NEW_YORK, TIME_0900AM, TIME_0500PM));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    EpochTimeRange fridayToMonday =
+        EpochTimeRange.fromStartEnd(at("2020-03-06T12:00:00Z"), at("2020-03-09T12:00:00Z"));
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(NO_EVENTS, workingHours), request, fridayToMonday);
+    Collection<EpochTimeRange> expected =
+        Arrays.asList(range("2020-03-06T14:00:00Z", "2020-03-06T22:00:00Z"),
+            range("2020-03-07T14:00:00Z", "2020-03-07T22:00:00Z"),
+            range("2020-03-08T13:00:00Z", "2020-03-08T21:00:00Z"));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeOffWork() {
+    // Person B never works during the horizon, so only Person A's times are returned.
+    workingHours.put(PERSON_B, new WorkingHours(UTC, TIME_0900AM, TIME_0500PM,
+        EnumSet.of(DayOfWeek.SUNDAY)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(NO_EVENTS, workingHours), request, MONDAY_TO_THURSDAY);
+    Collection<EpochTimeRange> expected = Arrays.asList(MONDAY_TO_THURSDAY);
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noOptionsForMeetingLongerThanTheHorizon() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A), MONDAY_TO_THURSDAY.duration() + 1);
+
+    Collection<EpochTimeRange> actual =
+        query.query(new MultiDayCalendar(NO_EVENTS, workingHours), request, MONDAY_TO_THURSDAY);
+
+    Assert.assertEquals(Arrays.asList(), actual);
+  }
+
+  private static Instant at(String time) {
+    return Instant.parse(time);
+  }
+
+  private static EpochTimeRange range(String start, String end) {
+    return EpochTimeRange.fromStartEnd(at(start), at(end));
+  }
+}
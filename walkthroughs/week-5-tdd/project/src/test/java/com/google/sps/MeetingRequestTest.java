@@ -14,6 +14,7 @@
 
 package com.google.sps;
 
+import com.google.gson.Gson;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -44,4 +45,25 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void requestFromConstructorIsComplete() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_B);
+
+    Assert.assertTrue(request.isComplete());
+  }
+
+  @Test
+  public void requestFromJsonWithMissingFieldsIsNotComplete() {
+    Gson gson = new Gson();
+
+    Assert.assertFalse(gson.fromJson("{\"duration\": 30}", MeetingRequest.class).isComplete());
+    Assert.assertFalse(gson.fromJson(
+        "{\"attendees\": [null], \"optional_attendees\": [], \"duration\": 30}",
+        MeetingRequest.class).isComplete());
+    Assert.assertTrue(gson.fromJson(
+        "{\"attendees\": [\"Person A\"], \"optional_attendees\": [], \"duration\": 30}",
+        MeetingRequest.class).isComplete());
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** Checks which values of k the servlet ranks slots for and which it rejects. */
+@RunWith(JUnit4.class)
+public final class QueryServletTest {
+  private static final String MEETING_REQUEST =
+      "{\"attendees\": [\"Ava\"], \"optional_attendees\": [], \"duration\": 30}";
+
+  private final QueryServlet servlet = new QueryServlet();
+
+  @Before
+  public void setUp() {
+    servlet.init();
+  }
+
+  @Test
+  public void kThatIsNotANumberIsABadRequest() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, post("ten").status);
+  }
+
+  @Test
+  public void kThatIsNotPositiveIsABadRequest() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, post("0").status);
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST, post("-1").status);
+  }
+
+  @Test
+  public void kAboveTheLimitIsABadRequest() throws IOException {
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post(String.valueOf(QueryServlet.MAX_NUM_SLOTS + 1)).status);
+    Assert.assertEquals(HttpServletResponse.SC_BAD_REQUEST,
+        post(String.valueOf(Integer.MAX_VALUE)).status);
+  }
+
+  @Test
+  public void kWithinTheLimitRanksSlots() throws IOException {
+    Response one = post("1");
+    Response most = post(String.valueOf(QueryServlet.MAX_NUM_SLOTS));
+
+    Assert.assertEquals(HttpServletResponse.SC_OK, one.status);
+    Assert.assertEquals(1, JsonParser.parseString(one.body.toString()).getAsJsonArray().size());
+    Assert.assertEquals(HttpServletResponse.SC_OK, most.status);
+    Assert.assertTrue(JsonParser.parseString(most.body.toString()).getAsJsonArray().size() >= 1);
+  }
+
+  /** What the servlet sent back. */
+  private static final class Response {
+    private int status = HttpServletResponse.SC_OK;
+    private final StringWriter body = new StringWriter();
+  }
+
+  /** Posts MEETING_REQUEST with the k parameter, using requests and responses that only do what the servlet needs. */
+  private Response post(String k) throws IOException {
+    Map<String, String> parameters = new HashMap<>();
+    parameters.put("k", k);
+
+    HttpServletRequest request = (HttpServletRequest) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {HttpServletRequest.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getParameter":
+              return parameters.get(args[0]);
+            case "getReader":
+              return new BufferedReader(new StringReader(MEETING_REQUEST));
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    Response result = new Response();
+    PrintWriter writer = new PrintWriter(result.body);
+    HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] {HttpServletResponse.class}, (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "sendError":
+              result.status = (int) args[0];
+              return null;
+            case "setContentType":
+              return null;
+            case "getWriter":
+              return writer;
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+
+    servlet.doPost(request, response);
+    writer.flush();
+    return result;
+  }
+}